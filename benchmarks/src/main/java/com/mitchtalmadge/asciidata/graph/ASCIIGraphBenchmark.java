@@ -0,0 +1,69 @@
+package com.mitchtalmadge.asciidata.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and allocations of plotting graphs of various sizes.
+ *
+ * @author MitchTalmadge
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ASCIIGraphBenchmark {
+
+    /**
+     * The number of values in the series, which is also the width of the graph.
+     */
+    @Param({"100", "1000", "10000"})
+    public int length;
+
+    /**
+     * The number of rows in the graph.
+     */
+    @Param({"10", "40"})
+    public int numRows;
+
+    /**
+     * The amplitude of the series.
+     */
+    @Param({"1", "1000000"})
+    public double amplitude;
+
+    private double[] series;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        // A random walk, so that the plotted line moves across several rows between neighbouring values.
+        series = new double[length];
+        double value = 0;
+        for (int i = 0; i < length; i++) {
+            value += random.nextGaussian();
+            series[i] = amplitude * Math.sin(i / 10.0) + value * amplitude / 10;
+        }
+    }
+
+    @Benchmark
+    public String plot() {
+        return ASCIIGraph.fromSeries(series).withNumRows(numRows).plot();
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.mitchtalmadge.asciidata.graph.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and allocations of finding the bounds of a series.
+ *
+ * @author MitchTalmadge
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeriesUtilsBenchmark {
+
+    /**
+     * The number of values in the series.
+     */
+    @Param({"100", "10000", "1000000"})
+    public int length;
+
+    private double[] series;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        series = new double[length];
+        for (int i = 0; i < length; i++) {
+            series[i] = random.nextGaussian() * 1000;
+        }
+    }
+
+    @Benchmark
+    public double[] getMinAndMaxValues() {
+        return SeriesUtils.getMinAndMaxValues(series);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.mitchtalmadge.asciidata.table;
+
+import com.mitchtalmadge.asciidata.table.formats.ASCIITableFormat;
+import com.mitchtalmadge.asciidata.table.formats.UTF8TableFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and allocations of rendering tables of various shapes.
+ *
+ * @author MitchTalmadge
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ASCIITableBenchmark {
+
+    /**
+     * The number of rows of data in the table.
+     */
+    @Param({"10", "1000", "10000"})
+    public int rows;
+
+    /**
+     * The number of columns in the table.
+     */
+    @Param({"3", "10"})
+    public int columns;
+
+    /**
+     * Whether some of the cells span multiple lines.
+     */
+    @Param({"false", "true"})
+    public boolean multiLine;
+
+    /**
+     * The format of the table; either "utf8" or "ascii".
+     */
+    @Param({"utf8", "ascii"})
+    public String format;
+
+    private String[] headers;
+    private String[][] data;
+    private ASCIITable table;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        headers = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            headers[column] = "Column " + column;
+        }
+
+        data = new String[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                String cell = Integer.toString(random.nextInt(1_000_000));
+                if (multiLine && (row + column) % 4 == 0)
+                    cell += "\n" + Long.toHexString(random.nextLong());
+                data[row][column] = cell;
+            }
+        }
+
+        table = createTable();
+    }
+
+    private ASCIITable createTable() {
+        return ASCIITable.fromData(headers, data)
+                .withTableFormat("ascii".equals(format) ? new ASCIITableFormat() : new UTF8TableFormat());
+    }
+
+    /**
+     * Renders a table which has already been created and measured.
+     */
+    @Benchmark
+    public String render() {
+        return table.toString();
+    }
+
+    /**
+     * Creates, measures and renders a table, as most callers do.
+     */
+    @Benchmark
+    public String createAndRender() {
+        return createTable().toString();
+    }
+
+}
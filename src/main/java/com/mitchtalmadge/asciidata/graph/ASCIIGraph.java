@@ -1,8 +1,14 @@
 package com.mitchtalmadge.asciidata.graph;
 
 import com.mitchtalmadge.asciidata.graph.util.SeriesUtils;
+import com.mitchtalmadge.asciidata.metrics.RenderListener;
+import com.mitchtalmadge.asciidata.metrics.RenderMetrics;
 
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.CharBuffer;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 
 /**
  * A two-axis graph created entirely from ASCII characters.
@@ -14,9 +20,65 @@ import java.text.DecimalFormat;
 public class ASCIIGraph {
 
     /**
-     * The data series, with index being the x-axis and value being the y-axis.
+     * The default for the most characters that the grid of a graph may hold, which is 32 MiB of chars.
      */
-    private double[] series;
+    static final int DEFAULT_MAX_GRID_CELLS = 1 << 24;
+
+    /**
+     * The most series that can be plotted together, so that the series drawn in each cell fits in a byte.
+     */
+    private static final int MAX_SERIES = Byte.MAX_VALUE;
+
+    /**
+     * The owner of a cell where the lines of more than one series overlap, with {@link Overlap#MARK}.
+     */
+    private static final byte OVERLAP_OWNER = -1;
+
+    /**
+     * The character drawn where the lines of more than one series overlap, with {@link Overlap#MARK}.
+     */
+    private static final char OVERLAP_MARK = '╳';
+
+    /**
+     * The ANSI escape sequence which resets the color after each colored run of cells.
+     */
+    private static final String ANSI_RESET = "\u001B[0m";
+
+    /**
+     * The data series, with index being the x-axis and value being the y-axis. They share the same axes.
+     */
+    private double[][] series;
+
+    /**
+     * The values plotted on the x-axis for each series, which are the series itself unless it has been downsampled
+     * to fit the target width.
+     */
+    private double[][] points;
+
+    /**
+     * The character that each series is drawn with, or null to draw each series as a line.
+     */
+    private char[] seriesGlyphs;
+
+    /**
+     * The ANSI escape sequence which colors each series, or null to not color any series.
+     */
+    private String[] seriesColors;
+
+    /**
+     * What is drawn where the lines of more than one series cross the same cell.
+     */
+    private Overlap overlap = Overlap.LAST;
+
+    /**
+     * The most values to plot on the x-axis, or 0 to plot every value of the series.
+     */
+    private int targetWidth;
+
+    /**
+     * How the series is downsampled when it has more values than the target width.
+     */
+    private Downsampling downsampling;
 
     /**
      * The minimum value in the series.
@@ -29,15 +91,26 @@ public class ASCIIGraph {
     private double max;
 
     /**
-     * The range of the data in the series.
+     * The number of rows requested, or 0 to choose the number of rows from the range of the series.
      */
-    private double range;
+    private int requestedNumRows;
 
     /**
      * The number of rows in the graph.
      */
     private int numRows;
 
+    /**
+     * The most rows that the graph may have when the number of rows is chosen from the range of the series,
+     * or 0 for no limit other than {@link ASCIIGraph#maxGridCells}.
+     */
+    private int maxNumRows;
+
+    /**
+     * The most characters that the grid of the graph may hold, including the newline at the end of each row.
+     */
+    private int maxGridCells = DEFAULT_MAX_GRID_CELLS;
+
     /**
      * The number of columns in the graph, including the axis and ticks.
      */
@@ -63,7 +136,12 @@ public class ASCIIGraph {
      */
     private int lineIndex;
 
-    private ASCIIGraph(double[] series) {
+    /**
+     * Receives the measurements of each plot, or null if plots are not measured.
+     */
+    private RenderListener listener;
+
+    private ASCIIGraph(double[][] series) {
         this.series = series;
     }
 
@@ -71,19 +149,27 @@ public class ASCIIGraph {
      * Calculates the instance fields used for plotting.
      */
     private void calculateFields() {
-        // Get minimum and maximum from series.
-        double[] minMax = SeriesUtils.getMinAndMaxValues(this.series);
+        // Downsample each series if it is wider than the target width.
+        this.points = new double[series.length][];
+        int width = 0;
+        for (int i = 0; i < series.length; i++) {
+            double[] values = series[i];
+            points[i] = values != null && targetWidth > 0 && values.length > targetWidth ? downsampling.downsample(values, targetWidth) : values;
+            width = Math.max(width, points[i] == null ? 0 : points[i].length);
+        }
+
+        // Get minimum and maximum from the plotted values of every series, which share the same scale.
+        double[] minMax = SeriesUtils.getMinAndMaxValuesOfAll(this.points);
         this.min = minMax[0];
         this.max = minMax[1];
-        this.range = max - min;
 
         axisIndex = tickWidth + 1;
         lineIndex = axisIndex + 1;
 
+        // For columns, add the width of the tick marks, the width of the axis, and the number of plotted values of the longest series.
+        this.numCols = tickWidth + (axisIndex - tickWidth) + width;
         // Since the graph is made of ASCII characters, it needs whole-number counts of rows and columns.
-        this.numRows = numRows == 0 ? (int) Math.round(max - min) + 1 : numRows;
-        // For columns, add the width of the tick marks, the width of the axis, and the length of the series.
-        this.numCols = tickWidth + (axisIndex - tickWidth) + series.length;
+        this.numRows = determineNumRows(requestedNumRows, maxNumRows, maxGridCells, max - min, numCols);
     }
 
     /**
@@ -93,7 +179,30 @@ public class ASCIIGraph {
      * @return A new ASCIIGraph instance.
      */
     public static ASCIIGraph fromSeries(double[] series) {
-        return new ASCIIGraph(series);
+        return new ASCIIGraph(new double[][]{series});
+    }
+
+    /**
+     * Creates an ASCIIGraph instance which overlays the given series on the same axes, such as p50, p99 and max latency.
+     * The scale of the y-axis is shared by every series, and the graph is as wide as the longest series.
+     * Series are best told apart with {@link ASCIIGraph#withSeriesColors(String...)} or
+     * {@link ASCIIGraph#withSeriesGlyphs(char...)}.
+     *
+     * @param series The series of data, where index is the x-axis and value is the y-axis.
+     * @return A new ASCIIGraph instance.
+     * @throws IllegalArgumentException If there are no series or more than 127 series, or if any series is null or empty.
+     */
+    public static ASCIIGraph fromSeries(double[]... series) {
+        if (series == null || series.length == 0)
+            throw new IllegalArgumentException("No series were supplied.");
+        if (series.length > MAX_SERIES)
+            throw new IllegalArgumentException("At most " + MAX_SERIES + " series can be plotted together.");
+        for (double[] values : series) {
+            if (values == null || values.length == 0)
+                throw new IllegalArgumentException("The series must have at least one value.");
+        }
+
+        return new ASCIIGraph(series.clone());
     }
 
     /**
@@ -104,7 +213,67 @@ public class ASCIIGraph {
      * @return This instance.
      */
     public ASCIIGraph withNumRows(int numRows) {
-        this.numRows = numRows;
+        this.requestedNumRows = numRows;
+        return this;
+    }
+
+    /**
+     * Limits the number of rows when they are chosen from the range of the series, which is the default.
+     * A series with a large range, such as latencies in nanoseconds or sizes in bytes, would otherwise have one row
+     * for each unit of its range. The rows are still limited by the size of the grid; see {@link ASCIIGraph#withMaxGridCells(int)}.
+     *
+     * @param maxNumRows The most rows that the graph may have, such as the height of the terminal; or 0 for no limit,
+     *                   which is the default.
+     * @return This instance.
+     */
+    public ASCIIGraph withMaxNumRows(int maxNumRows) {
+        if (maxNumRows < 0)
+            throw new IllegalArgumentException("The maximum number of rows cannot be negative.");
+
+        this.maxNumRows = maxNumRows;
+        return this;
+    }
+
+    /**
+     * Limits the size of the grid which the graph is plotted into, which holds one character for each row and column of
+     * the graph. When the number of rows is chosen from the range of the series, it is reduced to fit within the limit.
+     * When the number of rows is given, plotting a graph which does not fit fails instead.
+     * Defaults to 16,777,216 characters (32 MiB).
+     *
+     * @param maxGridCells The most characters that the grid may hold.
+     * @return This instance.
+     */
+    public ASCIIGraph withMaxGridCells(int maxGridCells) {
+        if (maxGridCells < 1)
+            throw new IllegalArgumentException("The maximum number of grid cells must be at least 1.");
+
+        this.maxGridCells = maxGridCells;
+        return this;
+    }
+
+    /**
+     * Limits the width of the line to at most the given number of columns, by downsampling the series when it is longer.
+     * Each column of the line is one value, so a series of a million values would otherwise be a million columns wide.
+     * The series itself is not modified.
+     *
+     * @param targetWidth  The most columns that the line may take, not including the ticks and axis; or 0 to plot
+     *                     every value of the series, which is the default.
+     * @param downsampling How to downsample the series. {@link Downsampling#MIN_MAX} keeps every spike,
+     *                     while {@link Downsampling#LARGEST_TRIANGLE_THREE_BUCKETS} keeps the overall shape.
+     * @return This instance.
+     * @throws IllegalArgumentException If the target width is too small for the downsampling, or if the downsampling is
+     *                                  null when a target width is given.
+     */
+    public ASCIIGraph withTargetWidth(int targetWidth, Downsampling downsampling) {
+        if (targetWidth != 0) {
+            if (downsampling == null)
+                throw new IllegalArgumentException("The downsampling is null.");
+            if (targetWidth < 3)
+                throw new IllegalArgumentException("The target width must be at least 3.");
+        }
+
+        this.targetWidth = targetWidth;
+        this.downsampling = downsampling;
         return this;
     }
 
@@ -133,34 +302,216 @@ public class ASCIIGraph {
         return this;
     }
 
+    /**
+     * Draws each series with a single character, such as '*' or '+', instead of as a line.
+     *
+     * @param glyphs The character of each series, in the same order as the series; or null to draw each series as a
+     *               line, which is the default.
+     * @return This instance.
+     * @throws IllegalArgumentException If there is not one character for each series.
+     */
+    public ASCIIGraph withSeriesGlyphs(char... glyphs) {
+        if (glyphs != null && glyphs.length != series.length)
+            throw new IllegalArgumentException("The number of glyphs (" + glyphs.length + ") " +
+                    "does not match the number of series (" + series.length + ")");
+
+        this.seriesGlyphs = glyphs == null ? null : glyphs.clone();
+        return this;
+    }
+
+    /**
+     * Colors each series using ANSI escape sequences, for terminals which support them.
+     * The color is reset after each run of colored cells, so the ticks and axis are never colored.
+     *
+     * @param colors The ANSI escape sequence of each series, in the same order as the series, such as "\u001B[31m" for red;
+     *               or null for a series to not be colored. If the array is null, no series are colored, which is the default.
+     * @return This instance.
+     * @throws IllegalArgumentException If there is not one color for each series.
+     */
+    public ASCIIGraph withSeriesColors(String... colors) {
+        if (colors != null && colors.length != series.length)
+            throw new IllegalArgumentException("The number of colors (" + colors.length + ") " +
+                    "does not match the number of series (" + series.length + ")");
+
+        this.seriesColors = colors == null ? null : colors.clone();
+        return this;
+    }
+
+    /**
+     * Determines what is drawn where the lines of more than one series cross the same cell.
+     * Defaults to {@link Overlap#LAST}.
+     *
+     * @param overlap What to draw.
+     * @return This instance.
+     */
+    public ASCIIGraph withOverlap(Overlap overlap) {
+        if (overlap == null)
+            throw new IllegalArgumentException("The overlap is null.");
+
+        this.overlap = overlap;
+        return this;
+    }
+
+    /**
+     * Attaches a listener which receives the measurements of each plot of this graph, such as its duration and size.
+     * Graphs without a listener are not measured.
+     *
+     * @param listener The listener to attach, such as {@link com.mitchtalmadge.asciidata.metrics.JfrRenderListener},
+     *                 or null to stop measuring.
+     * @return This instance.
+     */
+    public ASCIIGraph withRenderListener(RenderListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
     /**
      * Plots the graph and returns it as a String.
      *
      * @return The string representation of the graph, using new lines.
      */
     public String plot() {
+        // Only measure the plot when someone is listening.
+        RenderListener listener = this.listener;
+        long startTime = listener == null ? 0 : System.nanoTime();
+
         calculateFields();
 
         // ---- PLOTTING ---- //
 
-        // The graph is initially stored in a 2D array, later turned into Strings.
-        char[][] graph = new char[numRows][numCols];
+        // The graph is stored in a single array, one row after another, each ending with a newline.
+        char[] graph = new char[numRows * (numCols + 1)];
 
         // Fill the graph with space characters.
+        Arrays.fill(graph, ' ');
         for (int row = 0; row < numRows; row++) {
-            for (int col = 0; col < graph[row].length; col++) {
-                graph[row][col] = ' ';
-            }
+            graph[cellAt(row, numCols)] = '\n';
         }
 
+        // Which series is drawn in each cell, which is only needed to overlap or color them.
+        byte[] owners = needsOwners() ? new byte[graph.length] : null;
+
         // Draw the ticks and graph.
         drawTicksAndAxis(graph);
 
-        // Draw the line.
-        drawLine(graph);
+        // Draw the lines.
+        drawLines(graph, owners);
+
+        String plot;
+        if (seriesColors == null) {
+            // The graph already has its newlines, so it only needs to be turned into a String.
+            plot = new String(graph);
+        } else {
+            StringBuilder coloredGraph = new StringBuilder(graph.length);
+            for (int row = 0; row < numRows; row++) {
+                appendColoredRow(coloredGraph, graph, owners, cellAt(row, 0));
+            }
+            plot = coloredGraph.toString();
+        }
+
+        if (listener != null)
+            listener.onRender(new RenderMetrics(RenderMetrics.Kind.GRAPH, System.nanoTime() - startTime, numRows, (long) numRows * numCols, plot.length(), -1));
+
+        return plot;
+    }
+
+    /**
+     * Plots the graph and appends it to the given output, one row at a time.
+     * Unlike {@link ASCIIGraph#plot()}, the graph is never held in memory as a whole: only the start and end row of
+     * each line in each column are kept, and each row is drawn from them into a single buffer which is reused for every row.
+     * The number of rows is chosen the same way as for {@link ASCIIGraph#plot()}, and the output is the same.
+     *
+     * @param output The output, such as a {@link java.io.Writer} or {@link StringBuilder}.
+     * @throws IOException If the output could not be appended to.
+     */
+    public void plotTo(Appendable output) throws IOException {
+        // Only measure the plot when someone is listening.
+        RenderListener listener = this.listener;
+        long startTime = listener == null ? 0 : System.nanoTime();
+
+        calculateFields();
+
+        // The rows where each line starts, and where it starts and ends in each column.
+        int[] initialRows = new int[points.length];
+        int[][] startRows = new int[points.length][];
+        int[][] endRows = new int[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            double[] values = points[i];
+            initialRows[i] = determineRowAtYValue(values[0], min, max, numRows);
+            startRows[i] = new int[values.length - 1];
+            endRows[i] = new int[values.length - 1];
+
+            int startRow = initialRows[i];
+            for (int x = 0; x < values.length - 1; x++) {
+                int endRow = determineRowAtYValue(values[x + 1], min, max, numRows);
+                startRows[i][x] = startRow;
+                endRows[i][x] = endRow;
+                startRow = endRow;
+            }
+        }
+
+        char[] rowBuffer = new char[numCols + 1];
+        byte[] rowOwners = needsOwners() ? new byte[numCols + 1] : null;
+        CharBuffer rowView = CharBuffer.wrap(rowBuffer);
+        StringBuilder coloredRow = seriesColors == null ? null : new StringBuilder();
+        long chars = 0;
+        for (int row = 0; row < numRows; row++) {
+            drawRow(rowBuffer, rowOwners, row, initialRows, startRows, endRows);
+            if (coloredRow == null) {
+                // Called through Buffer, since CharBuffer only overrides clear() as of Java 9.
+                ((Buffer) rowView).clear();
+                output.append(rowView);
+                chars += rowBuffer.length;
+            } else {
+                coloredRow.setLength(0);
+                appendColoredRow(coloredRow, rowBuffer, rowOwners, 0);
+                output.append(coloredRow);
+                chars += coloredRow.length();
+            }
+        }
+
+        if (listener != null)
+            listener.onRender(new RenderMetrics(RenderMetrics.Kind.GRAPH, System.nanoTime() - startTime, numRows, (long) numRows * numCols, chars, -1));
+    }
+
+    /**
+     * Draws a single row of the graph, the same as it appears in the grid drawn by {@link ASCIIGraph#plot()}.
+     *
+     * @param rowBuffer   The buffer to draw into, which holds the row and its newline.
+     * @param rowOwners   The buffer which holds the series drawn in each cell of the row, or null if it is not needed.
+     * @param row         The row to draw.
+     * @param initialRows The row where each line starts, which is marked on the axis.
+     * @param startRows   The row where each line starts in each column.
+     * @param endRows     The row where each line ends in each column.
+     */
+    private void drawRow(char[] rowBuffer, byte[] rowOwners, int row, int[] initialRows, int[][] startRows, int[][] endRows) {
+        Arrays.fill(rowBuffer, 0, numCols, ' ');
+        rowBuffer[numCols] = '\n';
+        if (rowOwners != null)
+            Arrays.fill(rowOwners, (byte) 0);
+
+        // Insert the tick and the axis. '┼' is used at the origin, and where each line starts.
+        double y = determineYValueAtRow(row, min, max, numRows);
+        String tick = formatTick(y);
+        tick.getChars(0, Math.min(tick.length(), numCols), rowBuffer, 0);
+        rowBuffer[axisIndex] = (y == 0) ? '┼' : '┤';
+        for (int initialRow : initialRows) {
+            if (initialRow == row)
+                rowBuffer[axisIndex] = '┼';
+        }
+
+        // Sweep the columns once, drawing every series which crosses this row in each column.
+        for (int x = 0; x < numCols - lineIndex; x++) {
+            for (int i = 0; i < startRows.length; i++) {
+                if (x >= startRows[i].length)
+                    continue;
 
-        // Convert the 2D char array graph to a String using newlines.
-        return convertGraphToString(graph);
+                int startRow = startRows[i][x];
+                int endRow = endRows[i][x];
+                if (row >= Math.min(startRow, endRow) && row <= Math.max(startRow, endRow))
+                    drawCell(rowBuffer, rowOwners, lineIndex + x, i, determineLineGlyph(i, startRow, endRow, row));
+            }
+        }
     }
 
     /**
@@ -168,82 +519,203 @@ public class ASCIIGraph {
      *
      * @param graph The graph.
      */
-    private void drawTicksAndAxis(char[][] graph) {
+    private void drawTicksAndAxis(char[] graph) {
         // Add the labels and the axis.
-        for (int row = 0; row < graph.length; row++) {
+        for (int row = 0; row < numRows; row++) {
 
-            double y = determineYValueAtRow(row);
+            double y = determineYValueAtRow(row, min, max, numRows);
 
             // Compute and Format Tick
             char[] tick = formatTick(y).toCharArray();
 
             // Insert Tick
-            System.arraycopy(tick, 0, graph[row], 0, tick.length);
+            System.arraycopy(tick, 0, graph, cellAt(row, 0), Math.min(tick.length, numCols));
 
             // Insert Axis line. '┼' is used at the origin.
-            graph[row][axisIndex] = (y == 0) ? '┼' : '┤';
+            graph[cellAt(row, axisIndex)] = (y == 0) ? '┼' : '┤';
         }
     }
 
     /**
-     * Adds the line to the graph.
+     * Adds the line of each series to the graph, in a single sweep over the columns.
      *
-     * @param graph The graph.
+     * @param graph  The graph.
+     * @param owners The series drawn in each cell of the graph, or null if it is not needed.
      */
-    private void drawLine(char[][] graph) {
-        // The row closest to y when x = 0.
-        int initialRow = determineRowAtYValue(series[0]);
-        // Modify the axis to show the start.
-        graph[initialRow][axisIndex] = '┼';
-
-        for (int x = 0; x < series.length - 1; x++) {
-            // The start and end locations of the line.
-            int startRow = determineRowAtYValue(series[x]);
-            int endRow = determineRowAtYValue(series[x + 1]);
-
-            if (startRow == endRow) { // The line is horizontal.
-                graph[startRow][lineIndex + x] = '─';
-            } else { // The line has slope.
-                // Draw the curved lines.
-                graph[startRow][lineIndex + x] = (startRow < endRow) ? '╮' : '╯';
-                graph[endRow][lineIndex + x] = (startRow < endRow) ? '╰' : '╭';
-
-                // If the rows are more than 1 row apart, we need to fill in the gap with vertical lines.
-                int lowerRow = Math.min(startRow, endRow);
-                int upperRow = Math.max(startRow, endRow);
-                for (int row = lowerRow + 1; row < upperRow; row++) {
-                    graph[row][lineIndex + x] = '│';
+    private void drawLines(char[] graph, byte[] owners) {
+        // The row where each line starts in the current column, which begins as the row closest to y when x = 0.
+        int[] startRows = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            startRows[i] = determineRowAtYValue(points[i][0], min, max, numRows);
+            // Modify the axis to show the start.
+            graph[cellAt(startRows[i], axisIndex)] = '┼';
+        }
+
+        for (int x = 0; x < numCols - lineIndex; x++) {
+            for (int i = 0; i < points.length; i++) {
+                if (x >= points[i].length - 1)
+                    continue;
+
+                // The start and end locations of the line.
+                int startRow = startRows[i];
+                int endRow = determineRowAtYValue(points[i][x + 1], min, max, numRows);
+
+                // Draw every row between them, including both.
+                for (int row = Math.min(startRow, endRow); row <= Math.max(startRow, endRow); row++) {
+                    drawCell(graph, owners, cellAt(row, lineIndex + x), i, determineLineGlyph(i, startRow, endRow, row));
                 }
+                startRows[i] = endRow;
             }
         }
     }
 
+    /**
+     * Determines the character of a line within one column.
+     *
+     * @param seriesIndex The index of the series of the line.
+     * @param startRow    The row where the line starts in the column.
+     * @param endRow      The row where the line ends in the column.
+     * @param row         The row of the character, which is between the start and end rows, inclusive.
+     * @return The character.
+     */
+    private char determineLineGlyph(int seriesIndex, int startRow, int endRow, int row) {
+        if (seriesGlyphs != null)
+            return seriesGlyphs[seriesIndex];
+
+        if (startRow == endRow) // The line is horizontal.
+            return '─';
+        // The line has slope, so it curves at both ends, with vertical lines in between.
+        if (row == startRow)
+            return (startRow < endRow) ? '╮' : '╯';
+        if (row == endRow)
+            return (startRow < endRow) ? '╰' : '╭';
+        return '│';
+    }
+
+    /**
+     * Draws a cell of a line, following the {@link ASCIIGraph#overlap} if another series was already drawn there.
+     *
+     * @param cells       The cells to draw into.
+     * @param owners      The series drawn in each cell, or null if it is not needed.
+     * @param index       The index of the cell.
+     * @param seriesIndex The index of the series being drawn.
+     * @param glyph       The character to draw.
+     */
+    private void drawCell(char[] cells, byte[] owners, int index, int seriesIndex, char glyph) {
+        if (owners == null) {
+            cells[index] = glyph;
+            return;
+        }
+
+        if (owners[index] == 0 || overlap == Overlap.LAST) {
+            cells[index] = glyph;
+            owners[index] = (byte) (seriesIndex + 1);
+        } else if (overlap == Overlap.MARK) {
+            cells[index] = OVERLAP_MARK;
+            owners[index] = OVERLAP_OWNER;
+        }
+    }
+
+    /**
+     * @return True if the series drawn in each cell must be known, to overlap or color the series.
+     */
+    private boolean needsOwners() {
+        return points.length > 1 || seriesColors != null;
+    }
+
+    /**
+     * Appends a row of the graph, wrapping each run of cells of the same series in the color of that series.
+     *
+     * @param output The output.
+     * @param cells  The cells of the graph.
+     * @param owners The series drawn in each cell of the graph.
+     * @param start  The index of the first cell of the row.
+     */
+    private void appendColoredRow(StringBuilder output, char[] cells, byte[] owners, int start) {
+        // The index of the series whose color is in effect, + 1; or 0 if no color is in effect.
+        int color = 0;
+        for (int col = 0; col < numCols; col++) {
+            int owner = owners[start + col];
+            int cellColor = owner > 0 && seriesColors[owner - 1] != null ? owner : 0;
+            if (cellColor != color) {
+                if (color != 0)
+                    output.append(ANSI_RESET);
+                if (cellColor != 0)
+                    output.append(seriesColors[cellColor - 1]);
+                color = cellColor;
+            }
+            output.append(cells[start + col]);
+        }
+
+        if (color != 0)
+            output.append(ANSI_RESET);
+        output.append('\n');
+    }
+
+    /**
+     * Determines the number of rows in a graph, within the limits of its height and grid.
+     *
+     * @param requestedNumRows The number of rows requested, or 0 to use the range of the series + 1.
+     * @param maxNumRows       The most rows when the range of the series is used, or 0 for no limit.
+     * @param maxGridCells     The most characters that the grid may hold, including the newline at the end of each row.
+     * @param range            The range of the series.
+     * @param numCols          The number of columns in the graph, including the axis and ticks.
+     * @return The number of rows.
+     * @throws IllegalStateException If the requested number of rows does not fit within the grid.
+     */
+    static int determineNumRows(int requestedNumRows, int maxNumRows, int maxGridCells, double range, int numCols) {
+        // Each row also holds a newline.
+        long rowsInGrid = maxGridCells / ((long) numCols + 1);
+
+        if (requestedNumRows != 0 || rowsInGrid == 0) {
+            if (Math.max(requestedNumRows, 1) > rowsInGrid)
+                throw new IllegalStateException("A graph of " + Math.max(requestedNumRows, 1) + " rows and " + numCols + " columns " +
+                        "does not fit within the maximum of " + maxGridCells + " grid cells.");
+            return requestedNumRows;
+        }
+
+        // The range is kept as a double until it is limited, since it may not fit in an int.
+        double numRows = Math.round(range) + 1.0;
+        if (maxNumRows > 0)
+            numRows = Math.min(numRows, maxNumRows);
+        return (int) Math.min(numRows, rowsInGrid);
+    }
+
     /**
      * Determines the row closest to the given y-axis value.
      *
-     * @param yValue The value of y.
+     * @param yValue  The value of y.
+     * @param min     The minimum value of the graph.
+     * @param max     The maximum value of the graph.
+     * @param numRows The number of rows in the graph.
      * @return The closest row to the given y-axis value.
      */
-    private int determineRowAtYValue(double yValue) {
+    static int determineRowAtYValue(double yValue, double min, double max, int numRows) {
         // ((yValue - min) / range) creates a ratio -- how deep the y-value is into the range.
         // Multiply that by the number of rows to determine how deep the y-value is into the number of rows.
         // Then invert it buy subtracting it from the number of rows, since 0 is actually the top.
 
         // 1 is subtracted from numRows since it is a length, and we start at 0.
-        return (numRows - 1) - (int) Math.round(((yValue - min) / range) * (numRows - 1));
+        return (numRows - 1) - (int) Math.round(((yValue - min) / (max - min)) * (numRows - 1));
     }
 
     /**
      * Determines the y-axis value corresponding to the given row.
      *
-     * @param row The row.
+     * @param row     The row.
+     * @param min     The minimum value of the graph.
+     * @param max     The maximum value of the graph.
+     * @param numRows The number of rows in the graph.
      * @return The y-axis value at the given row.
      */
-    private double determineYValueAtRow(int row) {
+    static double determineYValueAtRow(int row, double min, double max, int numRows) {
         // Compute the current y value by starting with the maximum and subtracting how far down we are in rows.
         // Splitting the range into chunks based on the number of rows gives us how much to subtract per row.
         // (-1 from the number of rows because it is a length, and the last row index is actually numRows - 1).
-        return max - (row * (range / (numRows - 1)));
+        // A single row has no room to split the range into, so it shows the maximum, as the top row would.
+        if (numRows == 1)
+            return max;
+        return max - (row * ((max - min) / (numRows - 1)));
     }
 
     /**
@@ -266,19 +738,14 @@ public class ASCIIGraph {
     }
 
     /**
-     * Converts the 2D char array representation of the graph into a String representation.
+     * Determines the index of a cell within the grid, where each row ends with a newline.
      *
-     * @param graph The 2D char array representation of the graph.
-     * @return The String representation of the graph.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the cell.
      */
-    private String convertGraphToString(char[][] graph) {
-        StringBuilder stringGraph = new StringBuilder();
-
-        for (char[] row : graph) {
-            stringGraph.append(row).append('\n');
-        }
-
-        return stringGraph.toString();
+    private int cellAt(int row, int col) {
+        return row * (numCols + 1) + col;
     }
 
 }
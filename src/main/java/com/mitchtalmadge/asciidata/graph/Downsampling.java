@@ -0,0 +1,44 @@
+package com.mitchtalmadge.asciidata.graph;
+
+import com.mitchtalmadge.asciidata.graph.util.SeriesUtils;
+
+/**
+ * How a series with more values than a graph has columns is reduced to fit.
+ * See {@link ASCIIGraph#withTargetWidth(int, Downsampling)}.
+ *
+ * @author MitchTalmadge
+ */
+public enum Downsampling {
+
+    /**
+     * Splits the series into buckets and keeps the minimum and maximum of each, in their original order,
+     * so that no spike is ever lost. See {@link SeriesUtils#downsampleMinMax(double[], int)}.
+     */
+    MIN_MAX {
+        @Override
+        double[] downsample(double[] series, int points) {
+            return SeriesUtils.downsampleMinMax(series, points);
+        }
+    },
+
+    /**
+     * Splits the series into buckets and keeps the single value of each which best preserves the shape of the line,
+     * using the Largest-Triangle-Three-Buckets algorithm. See {@link SeriesUtils#downsampleLargestTriangleThreeBuckets(double[], int)}.
+     */
+    LARGEST_TRIANGLE_THREE_BUCKETS {
+        @Override
+        double[] downsample(double[] series, int points) {
+            return SeriesUtils.downsampleLargestTriangleThreeBuckets(series, points);
+        }
+    };
+
+    /**
+     * Reduces the series to at most the given number of points.
+     *
+     * @param series The series, which has more values than the number of points.
+     * @param points The most points to keep.
+     * @return The downsampled series.
+     */
+    abstract double[] downsample(double[] series, int points);
+
+}
@@ -0,0 +1,468 @@
+package com.mitchtalmadge.asciidata.graph;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.CharBuffer;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+
+/**
+ * A graph of the most recent values of a series which grows over time, such as one sample per second on a dashboard.
+ * Each plot looks the same as an {@link ASCIIGraph} of the visible values.
+ * <p>
+ * The values are kept in a ring buffer of a fixed capacity, which is also the width of the line, so adding a value never
+ * copies the series. The minimum and maximum of the visible values are kept with monotonic queues, so they are known in
+ * amortized constant time rather than by scanning the series.
+ * <p>
+ * The plot is drawn into a frame which is kept between plots. Once the ring buffer is full, and as long as the scale of
+ * the graph does not change, each plot only erases and draws the cells of the line, and allocates nothing.
+ * The ticks are formatted straight into the frame, and only when it is drawn again in full, such as when the scale changes.
+ *
+ * @author MitchTalmadge
+ */
+public final class LiveGraph {
+
+    /**
+     * The most recent values, where the oldest visible value is at {@link LiveGraph#oldestIndex()}.
+     */
+    private final double[] values;
+
+    /**
+     * The number of values added so far, including those which are no longer visible.
+     */
+    private long addedCount;
+
+    /**
+     * The visible values, in order, which could be the minimum once the values before them are gone.
+     */
+    private final MonotonicQueue minQueue;
+
+    /**
+     * The visible values, in order, which could be the maximum once the values before them are gone.
+     */
+    private final MonotonicQueue maxQueue;
+
+    /**
+     * The number of rows requested, or 0 for the range of the visible values + 1, as in {@link ASCIIGraph}.
+     */
+    private int requestedNumRows;
+
+    /**
+     * The most rows when they are chosen from the range of the visible values, or 0 for no limit other than the grid.
+     */
+    private int maxNumRows;
+
+    private int tickWidth = 8;
+    private DecimalFormat tickFormat = new DecimalFormat("###0.00");
+
+    // ---- Scale of the previous plot ---- //
+
+    private double min;
+    private double max;
+    private int numRows;
+
+    /**
+     * Holds each tick while it is formatted, before it is copied into the frame.
+     */
+    private final StringBuffer tickBuffer = new StringBuffer();
+
+    /**
+     * Required by {@link DecimalFormat} to format into the {@link LiveGraph#tickBuffer}; its position is not used.
+     */
+    private final FieldPosition tickField = new FieldPosition(0);
+
+    // ---- Frame of the previous plot ---- //
+
+    /**
+     * The rows of the previous plot, each followed by a newline.
+     */
+    private char[] frame = new char[0];
+
+    /**
+     * A view of the frame, for appending it without copying.
+     */
+    private CharBuffer frameBuffer = CharBuffer.wrap(frame);
+
+    /**
+     * The number of characters in each row of the frame, including the newline; or 0 if nothing has been drawn in the frame.
+     */
+    private int frameStride;
+
+    /**
+     * The number of rows in the frame.
+     */
+    private int frameRows;
+
+    /**
+     * The number of columns of the line in the frame.
+     */
+    private int frameColumns;
+
+    /**
+     * The row at which the line starts in the frame, which is marked on the axis.
+     */
+    private int frameInitialRow;
+
+    /**
+     * The topmost and bottommost rows drawn in each column of the line in the frame, so that they can be erased.
+     */
+    private final int[] drawnTopRows;
+    private final int[] drawnBottomRows;
+
+    private LiveGraph(int capacity) {
+        this.values = new double[capacity];
+        this.minQueue = new MonotonicQueue(capacity, false);
+        this.maxQueue = new MonotonicQueue(capacity, true);
+        this.drawnTopRows = new int[capacity];
+        this.drawnBottomRows = new int[capacity];
+    }
+
+    /**
+     * Creates a new, empty live graph which shows up to the given number of the most recent values.
+     *
+     * @param capacity The most values to show, which is also the most columns that the line may take.
+     * @return A new LiveGraph instance.
+     */
+    public static LiveGraph withCapacity(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be at least 1.");
+
+        return new LiveGraph(capacity);
+    }
+
+    /**
+     * Determines the number of rows in the graph.
+     * By default, the number of rows will be equal to the range of the visible values + 1.
+     *
+     * @param numRows The number of rows desired. If 0, uses the default.
+     * @return This instance.
+     */
+    public LiveGraph withNumRows(int numRows) {
+        if (numRows < 0)
+            throw new IllegalArgumentException("The number of rows cannot be negative.");
+
+        this.requestedNumRows = numRows;
+        return this;
+    }
+
+    /**
+     * Limits the number of rows when they are chosen from the range of the visible values, which is the default.
+     * The frame is always limited to the same number of characters as the grid of an {@link ASCIIGraph}.
+     *
+     * @param maxNumRows The most rows that the graph may have, such as the height of the terminal; or 0 for no limit,
+     *                   which is the default.
+     * @return This instance.
+     */
+    public LiveGraph withMaxNumRows(int maxNumRows) {
+        if (maxNumRows < 0)
+            throw new IllegalArgumentException("The maximum number of rows cannot be negative.");
+
+        this.maxNumRows = maxNumRows;
+        return this;
+    }
+
+    /**
+     * Determines the minimum width of the ticks on the axis.
+     * Ticks will be left-padded with spaces if they are not already this length.
+     * Defaults to 8.
+     *
+     * @param tickWidth The width of the ticks on the axis.
+     * @return This instance.
+     */
+    public LiveGraph withTickWidth(int tickWidth) {
+        this.tickWidth = tickWidth;
+        this.frameStride = 0;
+        return this;
+    }
+
+    /**
+     * Determines how the ticks will be formatted.
+     * Defaults to "###0.00".
+     *
+     * @param tickFormat The format of the ticks.
+     * @return This instance.
+     */
+    public LiveGraph withTickFormat(DecimalFormat tickFormat) {
+        this.tickFormat = tickFormat;
+        this.frameStride = 0;
+        return this;
+    }
+
+    /**
+     * Adds a value to the end of the series. Once the graph is at capacity, the oldest value is no longer shown.
+     *
+     * @param value The value, which must be finite.
+     * @return This instance.
+     */
+    public LiveGraph add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            throw new IllegalArgumentException("The value must be finite.");
+
+        long sequence = addedCount++;
+        long oldestVisible = sequence - values.length + 1;
+        minQueue.removeBefore(oldestVisible);
+        maxQueue.removeBefore(oldestVisible);
+
+        values[(int) (sequence % values.length)] = value;
+        minQueue.add(sequence);
+        maxQueue.add(sequence);
+        return this;
+    }
+
+    /**
+     * @return The number of values shown, which is at most the capacity.
+     */
+    public int getVisibleCount() {
+        return (int) Math.min(addedCount, values.length);
+    }
+
+    /**
+     * @return The index of the values array which holds the oldest visible value.
+     */
+    private int oldestIndex() {
+        return addedCount > values.length ? (int) (addedCount % values.length) : 0;
+    }
+
+    /**
+     * @param x The position of a visible value, from 0 for the oldest.
+     * @return The visible value.
+     */
+    private double valueAt(int x) {
+        int index = oldestIndex() + x;
+        return values[index >= values.length ? index - values.length : index];
+    }
+
+    /**
+     * Plots the visible values and returns them as a String.
+     *
+     * @return The string representation of the graph, using new lines.
+     * @throws IllegalStateException If no values have been added.
+     */
+    public String plot() {
+        draw();
+        return new String(frame, 0, frameRows * frameStride);
+    }
+
+    /**
+     * Plots the visible values and appends them to the given output. Once the frame has been drawn, appending it
+     * does not copy it, so with an output that does not allocate, such as a {@link StringBuilder} with enough capacity,
+     * the plot allocates nothing.
+     *
+     * @param output The output.
+     * @throws IOException           If the output could not be appended to.
+     * @throws IllegalStateException If no values have been added.
+     */
+    public void plotTo(Appendable output) throws IOException {
+        draw();
+        // Called through Buffer, since CharBuffer only overrides clear() as of Java 9.
+        ((Buffer) frameBuffer).clear();
+        output.append(frameBuffer, 0, frameRows * frameStride);
+    }
+
+    /**
+     * Draws the visible values into the frame, erasing the line of the previous plot when the frame can be reused,
+     * and drawing the entire frame again otherwise.
+     */
+    private void draw() {
+        int count = getVisibleCount();
+        if (count == 0)
+            throw new IllegalStateException("No values have been added.");
+
+        double min = values[(int) (minQueue.first() % values.length)];
+        double max = values[(int) (maxQueue.first() % values.length)];
+        int axisIndex = tickWidth + 1;
+        int lineIndex = axisIndex + 1;
+        int numRows = ASCIIGraph.determineNumRows(requestedNumRows, maxNumRows, ASCIIGraph.DEFAULT_MAX_GRID_CELLS, max - min, axisIndex + count);
+        if (min != this.min || max != this.max || numRows != this.numRows) {
+            this.min = min;
+            this.max = max;
+            this.numRows = numRows;
+            frameStride = 0;
+        }
+
+        if (frameStride == 0 || frameRows != numRows || frameColumns != count) {
+            drawFrame(axisIndex + count + 1, count);
+        } else {
+            eraseLine(lineIndex);
+        }
+
+        drawLine(axisIndex, lineIndex, count);
+    }
+
+    /**
+     * Draws the entire frame again, without the line, growing it if needed.
+     *
+     * @param stride  The number of characters in each row, including the newline.
+     * @param columns The number of columns of the line.
+     */
+    private void drawFrame(int stride, int columns) {
+        int length = numRows * stride;
+        if (frame.length < length) {
+            frame = new char[length];
+            frameBuffer = CharBuffer.wrap(frame);
+        }
+
+        int axisIndex = tickWidth + 1;
+        for (int row = 0; row < numRows; row++) {
+            int rowStart = row * stride;
+            for (int col = 0; col < stride - 1; col++) {
+                frame[rowStart + col] = ' ';
+            }
+            frame[rowStart + stride - 1] = '\n';
+
+            drawTick(rowStart, stride, row);
+            frame[rowStart + axisIndex] = axisAtRow(row);
+        }
+
+        frameStride = stride;
+        frameRows = numRows;
+        frameColumns = columns;
+        frameInitialRow = -1;
+        for (int x = 0; x < columns; x++) {
+            drawnTopRows[x] = 0;
+            drawnBottomRows[x] = -1;
+        }
+    }
+
+    /**
+     * Formats the tick of a row into the frame, left-padded with the spaces already there to be
+     * {@link LiveGraph#tickWidth} characters long, the same as {@link ASCIIGraph}.
+     *
+     * @param rowStart The index of the row within the frame.
+     * @param stride   The number of characters in each row, including the newline.
+     * @param row      The row.
+     */
+    private void drawTick(int rowStart, int stride, int row) {
+        tickBuffer.setLength(0);
+        tickFormat.format(ASCIIGraph.determineYValueAtRow(row, min, max, numRows), tickBuffer, tickField);
+
+        int padding = Math.max(0, tickWidth - tickBuffer.length());
+        tickBuffer.getChars(0, Math.min(tickBuffer.length(), stride - 1 - padding), frame, rowStart + padding);
+    }
+
+    /**
+     * Erases the line of the previous plot, and the mark of its start on the axis.
+     *
+     * @param lineIndex The index at which the line starts.
+     */
+    private void eraseLine(int lineIndex) {
+        for (int x = 0; x < frameColumns; x++) {
+            for (int row = drawnTopRows[x]; row <= drawnBottomRows[x]; row++) {
+                frame[row * frameStride + lineIndex + x] = ' ';
+            }
+        }
+
+        if (frameInitialRow >= 0)
+            frame[frameInitialRow * frameStride + tickWidth + 1] = axisAtRow(frameInitialRow);
+    }
+
+    /**
+     * Draws the line of the visible values, the same as {@link ASCIIGraph}.
+     *
+     * @param axisIndex The index at which the axis starts.
+     * @param lineIndex The index at which the line starts.
+     * @param count     The number of visible values.
+     */
+    private void drawLine(int axisIndex, int lineIndex, int count) {
+        // The row closest to y when x = 0, which is marked on the axis.
+        int initialRow = ASCIIGraph.determineRowAtYValue(valueAt(0), min, max, numRows);
+        frame[initialRow * frameStride + axisIndex] = '┼';
+        frameInitialRow = initialRow;
+
+        int startRow = initialRow;
+        for (int x = 0; x < count - 1; x++) {
+            int endRow = ASCIIGraph.determineRowAtYValue(valueAt(x + 1), min, max, numRows);
+            int col = lineIndex + x;
+
+            if (startRow == endRow) { // The line is horizontal.
+                frame[startRow * frameStride + col] = '─';
+            } else { // The line has slope.
+                frame[startRow * frameStride + col] = (startRow < endRow) ? '╮' : '╯';
+                frame[endRow * frameStride + col] = (startRow < endRow) ? '╰' : '╭';
+
+                // Fill in the gap with vertical lines.
+                for (int row = Math.min(startRow, endRow) + 1; row < Math.max(startRow, endRow); row++) {
+                    frame[row * frameStride + col] = '│';
+                }
+            }
+
+            drawnTopRows[x] = Math.min(startRow, endRow);
+            drawnBottomRows[x] = Math.max(startRow, endRow);
+            startRow = endRow;
+        }
+    }
+
+    /**
+     * @param row The row.
+     * @return The character of the axis at the given row, before the start of the line is marked on it.
+     */
+    private char axisAtRow(int row) {
+        // '┼' is used at the origin.
+        return ASCIIGraph.determineYValueAtRow(row, min, max, numRows) == 0 ? '┼' : '┤';
+    }
+
+    /**
+     * A queue of the sequence numbers of visible values, whose values are in increasing order (or decreasing,
+     * for the maximum). A value is dropped as soon as a newer value is at least as small (or as large), since it can never
+     * be the minimum (or maximum) again, so the first value in the queue is always the minimum (or maximum).
+     */
+    private final class MonotonicQueue {
+
+        /**
+         * The sequence numbers, in a ring of the same capacity as the values.
+         */
+        private final long[] sequences;
+
+        /**
+         * True if the queue keeps the maximum, rather than the minimum.
+         */
+        private final boolean maximum;
+
+        private int head;
+        private int size;
+
+        MonotonicQueue(int capacity, boolean maximum) {
+            this.sequences = new long[capacity];
+            this.maximum = maximum;
+        }
+
+        /**
+         * Removes the values which are older than the given sequence number, and so are no longer visible.
+         *
+         * @param sequence The sequence number of the oldest visible value.
+         */
+        void removeBefore(long sequence) {
+            while (size > 0 && sequences[head] < sequence) {
+                head = (head + 1) % sequences.length;
+                size--;
+            }
+        }
+
+        /**
+         * Adds the newest value, first removing the values which it replaces as the minimum (or maximum).
+         *
+         * @param sequence The sequence number of the newest value.
+         */
+        void add(long sequence) {
+            double value = values[(int) (sequence % values.length)];
+            while (size > 0) {
+                int last = (head + size - 1) % sequences.length;
+                double lastValue = values[(int) (sequences[last] % values.length)];
+                if (maximum ? lastValue > value : lastValue < value)
+                    break;
+                size--;
+            }
+            sequences[(head + size) % sequences.length] = sequence;
+            size++;
+        }
+
+        /**
+         * @return The sequence number of the minimum (or maximum) visible value.
+         */
+        long first() {
+            return sequences[head];
+        }
+
+    }
+
+}
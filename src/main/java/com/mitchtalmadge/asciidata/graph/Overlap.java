@@ -0,0 +1,26 @@
+package com.mitchtalmadge.asciidata.graph;
+
+/**
+ * What is drawn where the lines of more than one series cross the same cell of a graph.
+ * See {@link ASCIIGraph#withOverlap(Overlap)}.
+ *
+ * @author MitchTalmadge
+ */
+public enum Overlap {
+
+    /**
+     * The series given first is drawn in front, so earlier series hide later ones.
+     */
+    FIRST,
+
+    /**
+     * The series given last is drawn in front, so later series hide earlier ones. This is the default.
+     */
+    LAST,
+
+    /**
+     * Neither series is drawn in front. The cell is marked with '╳', without color, to show that the lines overlap.
+     */
+    MARK
+
+}
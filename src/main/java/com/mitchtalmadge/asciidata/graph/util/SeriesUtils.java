@@ -1,7 +1,5 @@
 package com.mitchtalmadge.asciidata.graph.util;
 
-import java.util.Arrays;
-
 public class SeriesUtils {
 
     /**
@@ -15,17 +13,147 @@ public class SeriesUtils {
         if (series == null || series.length == 0)
             throw new IllegalArgumentException("The series must have at least one value.");
 
+        return getMinAndMaxValuesOfAll(new double[][]{series});
+    }
+
+    /**
+     * From several series, determines the minimum and maximum values of them all, in a single pass over each series.
+     *
+     * @param series The series.
+     * @return An array of size 2, containing the minimum value of all series at index 0, and the maximum at index 1.
+     * @throws IllegalArgumentException If any series does not contain at least one value, or is null,
+     *                                  or if there are no series.
+     */
+    public static double[] getMinAndMaxValuesOfAll(double[][] series) {
+        if (series == null || series.length == 0)
+            throw new IllegalArgumentException("There must be at least one series.");
+
         // Initialize results with the largest value in the minimum spot, and smallest value in the maximum spot.
-        double[] results = new double[]{Double.MAX_VALUE, Double.MIN_VALUE};
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+
+        // Find min and max, comparing each value to both at once.
+        for (double[] values : series) {
+            if (values == null || values.length == 0)
+                throw new IllegalArgumentException("The series must have at least one value.");
+
+            for (double value : values) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+
+        return new double[]{min, max};
+    }
+
+    /**
+     * Downsamples the series by splitting it into buckets and keeping the minimum and maximum value of each bucket,
+     * in the order that they appear in the series. Spikes are never lost, as every extreme is kept.
+     * <p>
+     * The series is read in a single pass, and is not copied.
+     *
+     * @param series The series.
+     * @param points The most points to keep, which must be at least 2. Since each bucket keeps two values,
+     *               an odd number of points is rounded down.
+     * @return The downsampled series, or a copy of the series if it already has no more than the given number of points.
+     * @throws IllegalArgumentException If the series does not contain at least one value, or is null,
+     *                                  or if fewer than 2 points are to be kept.
+     */
+    public static double[] downsampleMinMax(double[] series, int points) {
+        checkDownsampling(series, points, 2);
+        if (series.length <= points)
+            return series.clone();
+
+        int buckets = points / 2;
+        double[] results = new double[buckets * 2];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int start = (int) ((long) bucket * series.length / buckets);
+            int end = (int) ((long) (bucket + 1) * series.length / buckets);
 
-        // Find min and max.
-        Arrays.stream(series).forEach(value -> {
-            // Compare value to the current min and max.
-            results[0] = Math.min(results[0], value);
-            results[1] = Math.max(results[1], value);
-        });
+            int minIndex = start;
+            int maxIndex = start;
+            for (int i = start + 1; i < end; i++) {
+                if (series[i] < series[minIndex])
+                    minIndex = i;
+                else if (series[i] > series[maxIndex])
+                    maxIndex = i;
+            }
+
+            // Keep the two values in the order they appear, so that the line rises and falls as the series does.
+            results[bucket * 2] = series[Math.min(minIndex, maxIndex)];
+            results[bucket * 2 + 1] = series[Math.max(minIndex, maxIndex)];
+        }
+
+        return results;
+    }
+
+    /**
+     * Downsamples the series using the Largest-Triangle-Three-Buckets algorithm.
+     * The first and last values are always kept. The rest of the series is split into buckets, and from each bucket,
+     * the value which forms the largest triangle with the value kept from the previous bucket and the average of the
+     * next bucket is kept. This preserves the visual shape of the line far better than keeping every nth value.
+     * <p>
+     * The series is read in a single pass (plus a second read of each bucket as the average of the next), and is not copied.
+     *
+     * @param series The series.
+     * @param points The number of points to keep, which must be at least 3.
+     * @return The downsampled series, or a copy of the series if it already has no more than the given number of points.
+     * @throws IllegalArgumentException If the series does not contain at least one value, or is null,
+     *                                  or if fewer than 3 points are to be kept.
+     */
+    public static double[] downsampleLargestTriangleThreeBuckets(double[] series, int points) {
+        checkDownsampling(series, points, 3);
+        if (series.length <= points)
+            return series.clone();
+
+        double[] results = new double[points];
+        results[0] = series[0];
+        results[points - 1] = series[series.length - 1];
+
+        // Every value but the first and last is split into buckets, one for each point in between.
+        int buckets = points - 2;
+        int inner = series.length - 2;
+        int previousIndex = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int start = 1 + (int) ((long) bucket * inner / buckets);
+            int end = 1 + (int) ((long) (bucket + 1) * inner / buckets);
+
+            // The average of the next bucket, which is just the last value after the final bucket.
+            int nextStart = end;
+            int nextEnd = bucket + 1 < buckets ? 1 + (int) ((long) (bucket + 2) * inner / buckets) : series.length;
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += i;
+                averageY += series[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            // Keep the value which forms the largest triangle with the previous point and the next average.
+            double previousY = series[previousIndex];
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previousIndex - averageX) * (series[i] - previousY) - (previousIndex - i) * (averageY - previousY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            results[bucket + 1] = series[maxIndex];
+            previousIndex = maxIndex;
+        }
 
         return results;
     }
 
+    private static void checkDownsampling(double[] series, int points, int minPoints) {
+        if (series == null || series.length == 0)
+            throw new IllegalArgumentException("The series must have at least one value.");
+        if (points < minPoints)
+            throw new IllegalArgumentException("At least " + minPoints + " points must be kept.");
+    }
+
 }
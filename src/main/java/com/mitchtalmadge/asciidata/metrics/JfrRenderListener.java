@@ -0,0 +1,42 @@
+package com.mitchtalmadge.asciidata.metrics;
+
+/**
+ * A listener which records each render as a JDK Flight Recorder event named
+ * <code>com.mitchtalmadge.asciidata.Render</code>, in the "ASCII-Data" category.
+ * When no recording is enabled for the event, each render costs a single check.
+ * <p>
+ * Requires a JVM which includes Flight Recorder (Java 11 and up, or OpenJDK 8u262 and up).
+ * Nothing else in the library depends on Flight Recorder, so it is only needed when this listener is used.
+ *
+ * @author MitchTalmadge
+ */
+public final class JfrRenderListener implements RenderListener {
+
+    private static final JfrRenderListener INSTANCE = new JfrRenderListener();
+
+    private JfrRenderListener() {
+    }
+
+    /**
+     * @return The listener which records Flight Recorder events.
+     */
+    public static JfrRenderListener getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void onRender(RenderMetrics metrics) {
+        RenderEvent event = new RenderEvent();
+        if (!event.isEnabled())
+            return;
+
+        event.kind = metrics.getKind().name();
+        event.renderDuration = metrics.getDurationNanos();
+        event.rows = metrics.getRows();
+        event.cells = metrics.getCells();
+        event.chars = metrics.getChars();
+        event.bytes = metrics.getBytes();
+        event.commit();
+    }
+
+}
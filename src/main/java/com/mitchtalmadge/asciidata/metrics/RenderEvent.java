@@ -0,0 +1,44 @@
+package com.mitchtalmadge.asciidata.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The Flight Recorder event committed by the {@link JfrRenderListener} for each render.
+ *
+ * @author MitchTalmadge
+ */
+@Name("com.mitchtalmadge.asciidata.Render")
+@Label("ASCII-Data Render")
+@Category("ASCII-Data")
+@Description("A table or graph was rendered.")
+class RenderEvent extends Event {
+
+    @Label("Kind")
+    @Description("What was rendered: TABLE or GRAPH.")
+    String kind;
+
+    @Label("Render Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderDuration;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Cells")
+    long cells;
+
+    @Label("Characters")
+    long chars;
+
+    @Label("Bytes")
+    @Description("The number of bytes written, or -1 if the output was not encoded into bytes.")
+    @DataAmount
+    long bytes;
+
+}
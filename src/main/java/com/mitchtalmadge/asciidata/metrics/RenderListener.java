@@ -0,0 +1,32 @@
+package com.mitchtalmadge.asciidata.metrics;
+
+/**
+ * Receives measurements of each render of an {@link com.mitchtalmadge.asciidata.table.ASCIITable}
+ * or {@link com.mitchtalmadge.asciidata.graph.ASCIIGraph} that it is attached to.
+ * <p>
+ * Listeners are called on the thread which rendered, after the render has finished,
+ * so they should return quickly. Tables and graphs without a listener are not measured at all.
+ *
+ * @author MitchTalmadge
+ */
+public interface RenderListener {
+
+    /**
+     * Called after each render.
+     *
+     * @param metrics The measurements of the render.
+     */
+    void onRender(RenderMetrics metrics);
+
+    /**
+     * Called after a render whose output buffer was sized up front, but had to grow to hold the output.
+     * Frequent growth means that the size estimate is too small, and that the output was copied while rendering.
+     *
+     * @param kind            What was rendered.
+     * @param initialCapacity The number of characters that the buffer was sized to hold.
+     * @param finalCapacity   The number of characters that the buffer could hold once the render finished.
+     */
+    default void onBufferGrowth(RenderMetrics.Kind kind, int initialCapacity, int finalCapacity) {
+    }
+
+}
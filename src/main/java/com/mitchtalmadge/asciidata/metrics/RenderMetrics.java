@@ -0,0 +1,104 @@
+package com.mitchtalmadge.asciidata.metrics;
+
+/**
+ * The measurements of a single render of a table or graph.
+ *
+ * @author MitchTalmadge
+ */
+public final class RenderMetrics {
+
+    /**
+     * The kinds of things that can be rendered.
+     */
+    public enum Kind {
+        /**
+         * An {@link com.mitchtalmadge.asciidata.table.ASCIITable}.
+         */
+        TABLE,
+
+        /**
+         * An {@link com.mitchtalmadge.asciidata.graph.ASCIIGraph}.
+         */
+        GRAPH
+    }
+
+    private final Kind kind;
+    private final long durationNanos;
+    private final int rows;
+    private final long cells;
+    private final long chars;
+    private final long bytes;
+
+    /**
+     * @param kind          What was rendered.
+     * @param durationNanos How long the render took, in nanoseconds.
+     * @param rows          The number of rows rendered, not including headers.
+     * @param cells         The number of cells rendered, not including headers.
+     * @param chars         The number of characters in the output.
+     * @param bytes         The number of bytes in the output, or -1 if it was not encoded into bytes.
+     */
+    public RenderMetrics(Kind kind, long durationNanos, int rows, long cells, long chars, long bytes) {
+        this.kind = kind;
+        this.durationNanos = durationNanos;
+        this.rows = rows;
+        this.cells = cells;
+        this.chars = chars;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return What was rendered.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return How long the render took, in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return The number of rows rendered. For tables, this excludes the headers.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The number of cells rendered. For tables, this is the number of rows times the number of columns.
+     * For graphs, this is the number of rows times the width of the graph.
+     */
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * @return The number of characters in the output.
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    /**
+     * @return The number of bytes in the output, or -1 if the output was not encoded into bytes.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "RenderMetrics{" +
+                "kind=" + kind +
+                ", durationNanos=" + durationNanos +
+                ", rows=" + rows +
+                ", cells=" + cells +
+                ", chars=" + chars +
+                ", bytes=" + bytes +
+                '}';
+    }
+
+}
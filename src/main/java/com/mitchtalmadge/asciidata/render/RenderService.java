@@ -0,0 +1,223 @@
+package com.mitchtalmadge.asciidata.render;
+
+import com.mitchtalmadge.asciidata.graph.ASCIIGraph;
+import com.mitchtalmadge.asciidata.table.ASCIITable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Renders tables and graphs in the background, returning a {@link CompletableFuture} for each.
+ * <p>
+ * No more than a fixed number of renders run at once. Submitting a render while that many are already running
+ * blocks the submitting thread until one of them finishes, so a burst of renders cannot pile up without bound.
+ * <p>
+ * When the JVM supports virtual threads (Java 21 and up), each render runs on its own virtual thread.
+ * Otherwise, renders run on a fixed pool of daemon threads, one for each render that may run at once.
+ *
+ * @author MitchTalmadge
+ */
+public final class RenderService implements AutoCloseable {
+
+    /**
+     * Numbers the platform threads created by every service.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final Executor executor;
+
+    /**
+     * The executor created by this service, which is shut down when the service is closed; or null if it was supplied.
+     */
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * One permit for each render which may run at once.
+     */
+    private final Semaphore permits;
+
+    private RenderService(Executor executor, ExecutorService ownedExecutor, int maxConcurrency) {
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Creates a new service which runs renders on virtual threads when they are available, and on platform threads otherwise.
+     *
+     * @param maxConcurrency The most renders that may run at once.
+     * @return A new RenderService instance, which should be closed once it is no longer needed.
+     */
+    public static RenderService create(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("At least one render must be allowed to run at once.");
+
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "ascii-data-render-" + THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return new RenderService(executor, executor, maxConcurrency);
+    }
+
+    /**
+     * Creates a new service which runs renders on the given executor.
+     * The executor is not shut down when the service is closed.
+     *
+     * @param executor       The executor to run renders on.
+     * @param maxConcurrency The most renders that may run at once.
+     * @return A new RenderService instance.
+     */
+    public static RenderService fromExecutor(Executor executor, int maxConcurrency) {
+        if (executor == null)
+            throw new IllegalArgumentException("The executor is null.");
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("At least one render must be allowed to run at once.");
+
+        return new RenderService(executor, null, maxConcurrency);
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for each task, if the JVM supports virtual threads.
+     * This is done reflectively, so that the library can still be built for and run on older versions of Java.
+     *
+     * @return The executor, or null if virtual threads are not supported.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Either the method does not exist, or virtual threads are a preview feature which is not enabled.
+            return null;
+        }
+    }
+
+    /**
+     * Renders the given table in the background.
+     *
+     * @param table The table to render. It must not be changed until the render completes.
+     * @return A future which completes with the rendered table.
+     */
+    public CompletableFuture<String> submit(ASCIITable table) {
+        if (table == null)
+            throw new IllegalArgumentException("The table is null.");
+
+        return submit(table::toString);
+    }
+
+    /**
+     * Plots the given graph in the background.
+     *
+     * @param graph The graph to plot. It must not be changed until the plot completes.
+     * @return A future which completes with the plotted graph.
+     */
+    public CompletableFuture<String> submit(ASCIIGraph graph) {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph is null.");
+
+        return submit(graph::plot);
+    }
+
+    /**
+     * Runs the given render in the background, blocking until it is allowed to start if too many renders are already running.
+     *
+     * @param render The render, such as <code>table::toString</code> or <code>graph::plot</code>.
+     * @return A future which completes with the result of the render, or exceptionally if the render fails
+     * or the submitting thread is interrupted while waiting for the render to start.
+     */
+    public CompletableFuture<String> submit(Supplier<String> render) {
+        if (render == null)
+            throw new IllegalArgumentException("The render is null.");
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(render.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // The executor rejected the render, such as when the service has been closed.
+            permits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a batch of renders in the background, blocking as each is submitted if too many renders are already running.
+     *
+     * @param renders The renders, such as <code>table::toString</code> or <code>graph::plot</code>.
+     * @return A future which completes with the results of the renders, in the same order as the renders,
+     * once every render has completed; or exceptionally if any render fails.
+     */
+    @SafeVarargs
+    public final CompletableFuture<List<String>> submitAll(Supplier<String>... renders) {
+        if (renders == null)
+            throw new IllegalArgumentException("The renders array is null.");
+
+        List<Supplier<String>> renderList = new ArrayList<>(renders.length);
+        for (Supplier<String> render : renders) {
+            renderList.add(render);
+        }
+        return submitAll(renderList);
+    }
+
+    /**
+     * Runs a batch of renders in the background, blocking as each is submitted if too many renders are already running.
+     *
+     * @param renders The renders, such as <code>table::toString</code> or <code>graph::plot</code>.
+     * @return A future which completes with the results of the renders, in the same order as the renders,
+     * once every render has completed; or exceptionally if any render fails.
+     */
+    public CompletableFuture<List<String>> submitAll(List<? extends Supplier<String>> renders) {
+        if (renders == null)
+            throw new IllegalArgumentException("The renders list is null.");
+
+        List<CompletableFuture<String>> futures = new ArrayList<>(renders.size());
+        for (Supplier<String> render : renders) {
+            futures.add(submit(render));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<String> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<String> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Stops accepting renders. Renders which were already submitted still complete.
+     * Executors supplied to {@link RenderService#fromExecutor(Executor, int)} are left running.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null)
+            ownedExecutor.shutdown();
+    }
+
+}
@@ -1,8 +1,27 @@
 package com.mitchtalmadge.asciidata.table;
 
+import com.mitchtalmadge.asciidata.metrics.RenderListener;
+import com.mitchtalmadge.asciidata.metrics.RenderMetrics;
 import com.mitchtalmadge.asciidata.table.formats.TableFormatAbstract;
 import com.mitchtalmadge.asciidata.table.formats.UTF8TableFormat;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 /**
  * A table created entirely from ASCII characters, such as pipes.
  * Printable to a console, chat server, or anywhere else where text-style tables are convenient.
@@ -13,21 +32,65 @@ import com.mitchtalmadge.asciidata.table.formats.UTF8TableFormat;
  */
 public class ASCIITable {
 
+    /**
+     * The number of rows rendered by each task when rendering in parallel.
+     */
+    private static final int PARALLEL_CHUNK_ROWS = 1024;
+
+    /**
+     * The size of the buffer which tables are encoded into when rendering to a channel without a buffer of its own.
+     */
+    private static final int BYTE_BUFFER_SIZE = 8192;
+
+    /**
+     * The most bytes of a file which are mapped into memory at once by each thread exporting a table to it.
+     */
+    private static final long EXPORT_WINDOW_SIZE = 64 << 20;
+
     private final String[] headers;
-    private final String[][] data;
+    private final TableData data;
     private final int columnsCount;
+    private final TableLayout layout;
     private final int[] columnWidths;
     private Align[] aligns;
-    private final int emptyWidth;
+    private int emptyWidth;
     private final String emptyMessage = "(empty)";
     private String nullValue = "";
 
+    /**
+     * The pool that the table is measured and rendered on, or null if it is measured and rendered on the calling thread.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The line bounds of the {@link ASCIITable#nullValue}, or null if it is a single line.
+     *
+     * @see TableLayout#scanLines(CharSequence)
+     */
+    private int[] nullValueLineBounds = null;
+
+    /**
+     * The {@link ASCIITable#nullValue}, which keeps its padded forms so that each null cell is a single copy.
+     */
+    private DictionaryValue nullValueCell = new DictionaryValue("");
+
     /**
      * How the table will be displayed. Defines which characters to be used.
      * Defaults to {@link UTF8TableFormat}.
      */
     private TableFormatAbstract tableFormat = new UTF8TableFormat();
 
+    /**
+     * The characters of the {@link ASCIITable#tableFormat}, compiled for the widths of this table.
+     * Built when the table is first rendered, and rebuilt if the format changes.
+     */
+    private volatile TableGlyphs glyphs;
+
+    /**
+     * Receives the measurements of each render, or null if renders are not measured.
+     */
+    private RenderListener listener;
+
     /**
      * Creates a new table using the given headers and data.
      *
@@ -37,58 +100,284 @@ public class ASCIITable {
      */
     @SuppressWarnings("WeakerAccess")
     public static ASCIITable fromData(String[] headers, String[][] data) {
+        return fromData(headers, data, WidthStrategy.exact());
+    }
+
+    /**
+     * Creates a new table using the given headers and data, whose cells may be any kind of text,
+     * such as the {@link Block} of another table nested within this one.
+     *
+     * @param headers The headers of the table. Each index is a new column, in order from left to right.
+     * @param data    The data of the table, in the format CharSequence[row][column]. Newlines are allowed.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     * @see ASCIITable#asBlock()
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromData(String[] headers, CharSequence[][] data) {
+        return fromData(headers, data, WidthStrategy.exact());
+    }
+
+    /**
+     * Creates a new table using the given headers and data, choosing the width of each column with the given strategy.
+     *
+     * @param headers       The headers of the table. Each index is a new column, in order from left to right.
+     * @param data          The data of the table, in the format String[row][column]. Newlines are allowed.
+     * @param widthStrategy Determines how the widths of the columns are chosen. See {@link WidthStrategy#exact()}.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromData(String[] headers, CharSequence[][] data, WidthStrategy widthStrategy) {
+        return fromData(headers, data, widthStrategy, null);
+    }
+
+    /**
+     * Creates a new table using the given headers and data, which will be measured and rendered in parallel on the given pool.
+     * This is only worthwhile for very large tables; the output is identical to that of a table rendered on a single thread.
+     *
+     * @param headers       The headers of the table. Each index is a new column, in order from left to right.
+     * @param data          The data of the table, in the format String[row][column]. Newlines are allowed.
+     * @param widthStrategy Determines how the widths of the columns are chosen. See {@link WidthStrategy#exact()}.
+     * @param pool          The pool to measure and render the table on, such as {@link ForkJoinPool#commonPool()}.
+     *                      If null, the table is measured and rendered on the calling thread.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromData(String[] headers, CharSequence[][] data, WidthStrategy widthStrategy, ForkJoinPool pool) {
         // Ensure we have headers.
         if (headers == null)
             throw new IllegalArgumentException("The table headers array is null.");
         if (headers.length == 0)
             throw new IllegalArgumentException("No headers were supplied.");
+        if (widthStrategy == null)
+            throw new IllegalArgumentException("The width strategy is null.");
 
         // Set the data to empty if it is null.
         if (data == null)
-            data = new String[0][0];
+            data = new CharSequence[0][0];
 
         // Create an ASCIITable instance.
-        return new ASCIITable(headers, data);
+        return new ASCIITable(headers, new ArrayTableData(data, headers.length), widthStrategy, pool);
+    }
+
+    /**
+     * Creates a new table using the given headers, whose rows are pulled lazily from the given source.
+     * Every row is measured, so the source must be two-pass; see {@link RowSource}.
+     *
+     * @param headers The headers of the table. Each index is a new column, in order from left to right.
+     * @param rows    The source of the rows of the table, each in the format String[column]. Newlines are allowed.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromRows(String[] headers, RowSource rows) {
+        return fromRows(headers, rows, WidthStrategy.exact());
+    }
+
+    /**
+     * Creates a new table using the given headers, whose rows are pulled lazily from the given source,
+     * choosing the width of each column with the given strategy.
+     * <p>
+     * Rows are only read while the table is being measured and rendered; they are never all held in memory at once.
+     * One-pass sources must use a width strategy which measures a bounded number of rows; see {@link RowSource}.
+     * Rows which do not have the same number of columns as there are headers cause an exception while rendering.
+     *
+     * @param headers       The headers of the table. Each index is a new column, in order from left to right.
+     * @param rows          The source of the rows of the table, each in the format String[column]. Newlines are allowed.
+     * @param widthStrategy Determines how the widths of the columns are chosen. See {@link WidthStrategy#exact()}.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromRows(String[] headers, RowSource rows, WidthStrategy widthStrategy) {
+        // Ensure we have headers.
+        if (headers == null)
+            throw new IllegalArgumentException("The table headers array is null.");
+        if (headers.length == 0)
+            throw new IllegalArgumentException("No headers were supplied.");
+        if (rows == null)
+            throw new IllegalArgumentException("The row source is null.");
+        if (widthStrategy == null)
+            throw new IllegalArgumentException("The width strategy is null.");
+
+        // One-pass sources keep every measured row until it is rendered, so that must not be every row.
+        if (!rows.isReiterable() && widthStrategy.getSampleRows() == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("One-pass row sources require a width strategy which measures a bounded number of rows.");
+
+        return new ASCIITable(headers, new RowSourceTableData(rows, headers.length), widthStrategy, null);
+    }
+
+    /**
+     * Creates a new table from rows stored outside of the heap. The columns were measured as the rows were added,
+     * so the table is created without reading any rows, and each cell is rendered without creating a String for it.
+     * Rows added after the table is created are not part of the table.
+     *
+     * @param rows The rows of the table, along with its headers.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromOffHeap(OffHeapRows rows) {
+        return fromOffHeap(rows, null);
+    }
+
+    /**
+     * Creates a new table from rows stored outside of the heap, which will be rendered in parallel on the given pool.
+     *
+     * @param rows The rows of the table, along with its headers.
+     * @param pool The pool to render the table on, such as {@link ForkJoinPool#commonPool()}.
+     *             If null, the table is rendered on the calling thread.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     * @see ASCIITable#fromOffHeap(OffHeapRows)
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromOffHeap(OffHeapRows rows, ForkJoinPool pool) {
+        if (rows == null)
+            throw new IllegalArgumentException("The rows are null.");
+
+        return new ASCIITable(rows.getHeaders(), rows.toTableData(), WidthStrategy.premeasured(rows.getColumnWidths(), rows.getNullColumns()), pool);
+    }
+
+    /**
+     * Creates a new table from delimited text, such as CSV or TSV, whose first record holds the headers.
+     * Every row is measured, so the text must be two-pass; see {@link DelimitedText}.
+     *
+     * @param text The text of the table.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     * @throws UncheckedIOException If the headers could not be read.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromDelimited(DelimitedText text) {
+        return fromDelimited(text, WidthStrategy.exact());
+    }
+
+    /**
+     * Creates a new table from delimited text, such as CSV or TSV, whose first record holds the headers,
+     * choosing the width of each column with the given strategy.
+     * <p>
+     * The headers are read right away. The rows are only parsed while the table is being measured and rendered,
+     * straight out of a buffer, so the text is never held in memory as a whole.
+     * One-pass text must use a width strategy which measures a bounded number of rows; see {@link DelimitedText}.
+     * Records which do not have the same number of fields as there are headers cause an exception while rendering,
+     * as does failing to read the text, which is thrown as an {@link UncheckedIOException}.
+     *
+     * @param text          The text of the table.
+     * @param widthStrategy Determines how the widths of the columns are chosen. See {@link WidthStrategy#exact()}.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     * @throws UncheckedIOException If the headers could not be read.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromDelimited(DelimitedText text, WidthStrategy widthStrategy) {
+        if (text == null)
+            throw new IllegalArgumentException("The text is null.");
+        if (widthStrategy == null)
+            throw new IllegalArgumentException("The width strategy is null.");
+
+        // One-pass text keeps every measured row until it is rendered, so that must not be every row.
+        if (!text.isReiterable() && widthStrategy.getSampleRows() == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("One-pass text requires a width strategy which measures a bounded number of rows.");
+
+        String[] headers;
+        DelimitedParser onePassParser = null;
+        try {
+            DelimitedParser parser = text.parse();
+            if (text.isReiterable()) {
+                try {
+                    headers = DelimitedTableData.parseHeaders(parser);
+                } finally {
+                    parser.close();
+                }
+            } else {
+                headers = DelimitedTableData.parseHeaders(parser);
+                onePassParser = parser;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new ASCIITable(headers, new DelimitedTableData(text, headers.length, onePassParser), widthStrategy, null);
+    }
+
+    /**
+     * Creates a new table from the given columns, each of which holds its own header and values.
+     * Numeric columns are measured and rendered straight from their primitive values.
+     *
+     * @param columns The columns of the table, in order from left to right. Each must have the same number of values.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromColumns(TableColumn... columns) {
+        return fromColumns(WidthStrategy.exact(), columns);
+    }
+
+    /**
+     * Creates a new table from the given columns, choosing the width of each column with the given strategy.
+     *
+     * @param widthStrategy Determines how the widths of the columns are chosen. See {@link WidthStrategy#exact()}.
+     * @param columns       The columns of the table, in order from left to right. Each must have the same number of values.
+     * @return A new ASCIITable instance that can be printed using the {@link ASCIITable#toString()}.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static ASCIITable fromColumns(WidthStrategy widthStrategy, TableColumn... columns) {
+        // Ensure we have columns.
+        if (columns == null)
+            throw new IllegalArgumentException("The table columns array is null.");
+        if (columns.length == 0)
+            throw new IllegalArgumentException("No columns were supplied.");
+        if (widthStrategy == null)
+            throw new IllegalArgumentException("The width strategy is null.");
+
+        String[] headers = new String[columns.length];
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column] == null)
+                throw new IllegalArgumentException("Column " + column + " is null.");
+            headers[column] = columns[column].getHeader();
+        }
+
+        return new ASCIITable(headers, new ColumnarTableData(columns), widthStrategy, null);
     }
 
     /**
      * Constructs a new ASCIITable from the given headers and data.
      *
-     * @param headers The headers of the table.
-     * @param data    The data of the table.
+     * @param headers       The headers of the table.
+     * @param data          The data of the table.
+     * @param widthStrategy Determines how the widths of the columns are chosen.
+     * @param pool          The pool to measure and render the table on, or null to use the calling thread.
      */
-    private ASCIITable(String[] headers, String[][] data) {
+    private ASCIITable(String[] headers, TableData data, WidthStrategy widthStrategy, ForkJoinPool pool) {
+        this(headers, data, widthStrategy, pool, null);
+    }
+
+    /**
+     * Constructs a new ASCIITable from the given headers and data, reusing the arrays of a layout which is no longer needed.
+     *
+     * @param headers        The headers of the table.
+     * @param data           The data of the table.
+     * @param widthStrategy  Determines how the widths of the columns are chosen.
+     * @param pool           The pool to measure and render the table on, or null to use the calling thread.
+     * @param reusableLayout The layout of a previous table which will not be rendered again, or null.
+     */
+    ASCIITable(String[] headers, TableData data, WidthStrategy widthStrategy, ForkJoinPool pool, TableLayout reusableLayout) {
         this.headers = headers;
         this.data = data;
+        this.pool = pool;
 
         // The number of columns in the table is equivalent to the number of headers.
         columnsCount = headers.length;
 
-        // Calculate the max width of each column in the table.
-        columnWidths = new int[columnsCount];
-        for (int row = 0; row < data.length + 1; row++) {
-            // The first row is for the headers.
-            String[] rowData = row == 0 ? headers : data[row - 1];
-
-            // Make sure we have enough columns.
-            if (rowData.length != columnsCount)
-                throw new IllegalArgumentException("The number of columns in row " + (row - 1) + " (" + rowData.length + ") " +
-                        "do not match the number of headers (" + columnsCount + ")");
-
-            // Iterate over each column in the row to get its width, and compare it to the maximum.
-            for (int column = 0; column < columnsCount; column++) {
-                // Check the length of each line in the cell.
-                for (String rowDataLine : nullSafeData(rowData[column]).split("\\n"))
-                    // Compare to the current max width.
-                    columnWidths[column] = Math.max(columnWidths[column], rowDataLine.length());
-            }
-        }
+        // Measure the width of each column and the lines of each cell in the table, all in one pass.
+        layout = TableLayout.measure(headers, data, widthStrategy, pool, reusableLayout);
+        columnWidths = layout.columnWidths;
 
         aligns = new Align[columnsCount];
         for (int i = 0; i < columnsCount; i++) {
             aligns[i] = Align.LEFT;
         }
 
+        fitEmptyMessage();
+    }
+
+    /**
+     * Makes room for the empty message in the columns of the layout, which must be called whenever they are resized.
+     */
+    private void fitEmptyMessage() {
         // Determine the width of everything including borders.
         // This is to be used in case there is no data and we must write the empty message to the table.
 
@@ -114,6 +403,20 @@ public class ASCIITable {
      */
     public ASCIITable withTableFormat(TableFormatAbstract tableFormat) {
         this.tableFormat = tableFormat;
+        this.glyphs = null;
+        return this;
+    }
+
+    /**
+     * Attaches a listener which receives the measurements of each render of this table, such as its duration and size.
+     * Tables without a listener are not measured.
+     *
+     * @param listener The listener to attach, such as {@link com.mitchtalmadge.asciidata.metrics.JfrRenderListener},
+     *                 or null to stop measuring.
+     * @return This ASCIITable instance.
+     */
+    public ASCIITable withRenderListener(RenderListener listener) {
+        this.listener = listener;
         return this;
     }
 
@@ -125,6 +428,12 @@ public class ASCIITable {
      */
     public ASCIITable withNullValue(String nullValue) {
         this.nullValue = nullValue;
+        this.nullValueCell = new DictionaryValue(nullValue);
+        this.nullValueLineBounds = nullValueCell.lineBounds;
+
+        // Null cells are as wide and as tall as the null value, so the columns which hold them may need to grow.
+        layout.fitNullValue(nullValue, nullValueLineBounds);
+        fitEmptyMessage();
         return this;
     }
 
@@ -135,90 +444,658 @@ public class ASCIITable {
 
     @Override
     public String toString() {
-        StringBuilder output = new StringBuilder();
+        // Size the output up front so that it never has to grow while rendering.
+        int toRow = data.getRowsCount() < 0 ? Integer.MAX_VALUE : data.getRowsCount();
+        return renderToString(0, toRow);
+    }
+
+    /**
+     * Renders a window of the table's rows, such as a single page, with its own borders and headers.
+     * The columns are exactly as wide as they are for the whole table, so every window lines up with every other window.
+     * Only the rows within the window are read, so rendering a window takes time proportional to its size.
+     *
+     * @param fromRow The index of the first row of the data to render.
+     * @param toRow   The index after the last row of the data to render. If equal to fromRow,
+     *                the window is rendered as an empty table.
+     * @return The string representation of the window of the table.
+     * @throws IllegalArgumentException      If the window is not within the rows of the table.
+     * @throws UnsupportedOperationException If the table's rows come from a {@link RowSource}, which can only be read in order.
+     */
+    public String renderRows(int fromRow, int toRow) {
+        checkWindow(fromRow, toRow);
+        return renderToString(fromRow, toRow);
+    }
+
+    /**
+     * Renders the given rows into a String, sized up front so that it never has to grow while rendering.
+     *
+     * @param fromRow The index of the first row of the data to render.
+     * @param toRow   The index after the last row of the data to render.
+     * @return The rendered rows.
+     */
+    private String renderToString(int fromRow, int toRow) {
+        StringBuilder output = new StringBuilder(estimateRenderedLength(fromRow, toRow));
+        try {
+            render(output, null, fromRow, toRow);
+        } catch (IOException e) {
+            // Nothing is written anywhere but the StringBuilder, so this cannot happen.
+            throw new IllegalStateException(e);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Renders the table to the given output, one row at a time.
+     * Unlike {@link ASCIITable#toString()}, the table is never held in memory all at once;
+     * each divider and row is written to the output as soon as it has been rendered.
+     * <p>
+     * The output is identical to that of {@link ASCIITable#toString()}.
+     *
+     * @param output The output to render to, such as a {@link java.io.Writer} or {@link StringBuilder}.
+     * @throws IOException If the output could not be written to.
+     */
+    public void renderTo(Appendable output) throws IOException {
+        if (output == null)
+            throw new IllegalArgumentException("The output is null.");
+
+        render(new StringBuilder(), output, 0, data.getRowsCount() < 0 ? Integer.MAX_VALUE : data.getRowsCount());
+    }
+
+    /**
+     * Renders a window of the table's rows to the given output, one row at a time.
+     * The output is identical to that of {@link ASCIITable#renderRows(int, int)}.
+     *
+     * @param output  The output to render to, such as a {@link java.io.Writer} or {@link StringBuilder}.
+     * @param fromRow The index of the first row of the data to render.
+     * @param toRow   The index after the last row of the data to render. If equal to fromRow,
+     *                the window is rendered as an empty table.
+     * @throws IOException                   If the output could not be written to.
+     * @throws IllegalArgumentException      If the window is not within the rows of the table.
+     * @throws UnsupportedOperationException If the table's rows come from a {@link RowSource}, which can only be read in order.
+     */
+    public void renderTo(Appendable output, int fromRow, int toRow) throws IOException {
+        if (output == null)
+            throw new IllegalArgumentException("The output is null.");
+        checkWindow(fromRow, toRow);
+
+        render(new StringBuilder(), output, fromRow, toRow);
+    }
+
+    /**
+     * Renders the table as UTF-8 bytes to the given channel, such as a socket or file.
+     * The table is encoded directly into a buffer which is written to the channel each time it fills up,
+     * so the table is never held in memory as a whole.
+     *
+     * @param channel The channel to write to.
+     * @throws IOException If the channel could not be written to.
+     */
+    public void renderTo(WritableByteChannel channel) throws IOException {
+        renderTo(channel, ByteBuffer.allocate(BYTE_BUFFER_SIZE));
+    }
+
+    /**
+     * Renders the table as UTF-8 bytes to the given channel, such as a socket or file.
+     * The table is encoded directly into the given buffer, which is written to the channel each time it fills up.
+     * Anything already in the buffer is discarded, so the same buffer may be reused by each render.
+     *
+     * @param channel The channel to write to.
+     * @param buffer  The buffer to encode the table into. Must be able to hold at least 4 bytes.
+     * @throws IOException If the channel could not be written to.
+     */
+    public void renderTo(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        if (channel == null)
+            throw new IllegalArgumentException("The channel is null.");
+        if (buffer == null || buffer.capacity() < 4)
+            throw new IllegalArgumentException("The buffer must be able to hold at least 4 bytes.");
+
+        // Called through Buffer, since ByteBuffer only overrides clear() as of Java 9.
+        ((Buffer) buffer).clear();
+        Utf8ByteOutput output = new Utf8ByteOutput(buffer, channel);
+        render(new StringBuilder(), output, 0, data.getRowsCount() < 0 ? Integer.MAX_VALUE : data.getRowsCount());
+        output.finish();
+    }
+
+    /**
+     * Renders the table as UTF-8 bytes directly into the given buffer, starting at its position.
+     * When this returns, the position of the buffer is just after the table.
+     *
+     * @param buffer The buffer to encode the table into.
+     * @throws java.nio.BufferOverflowException If the table does not fit in the remaining space of the buffer.
+     *                                          What was written to the buffer before the overflow is left in place.
+     */
+    public void renderTo(ByteBuffer buffer) {
+        if (buffer == null)
+            throw new IllegalArgumentException("The buffer is null.");
+
+        Utf8ByteOutput output = new Utf8ByteOutput(buffer, null);
+        try {
+            render(new StringBuilder(), output, 0, data.getRowsCount() < 0 ? Integer.MAX_VALUE : data.getRowsCount());
+            output.finish();
+        } catch (IOException e) {
+            // Nothing is written anywhere but the buffer, so this cannot happen.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Exports the table as UTF-8 to the given file, replacing anything already in the file.
+     * <p>
+     * The exact size of the file is measured first, so that it can be allocated up front. The rows are then encoded
+     * directly into the file, through windows of the file which are mapped into memory, so the table is never held in
+     * memory as a whole. When the table was created with a pool, the windows are measured and written in parallel.
+     *
+     * @param file The file to export to, which is created if it does not exist.
+     * @return The number of bytes written to the file.
+     * @throws IOException                   If the file could not be written to.
+     * @throws UnsupportedOperationException If the table's rows come from a {@link RowSource}, which can only be read in order.
+     * @throws IllegalStateException         If the data of the table changed while it was being exported.
+     */
+    public long exportTo(Path file) throws IOException {
+        return exportTo(file, EXPORT_WINDOW_SIZE);
+    }
+
+    /**
+     * Exports the table as UTF-8 to the given file through windows of at most the given size, unless a single chunk of
+     * rows is larger.
+     *
+     * @param file       The file to export to.
+     * @param windowSize The most bytes to map into memory at once.
+     * @return The number of bytes written to the file.
+     * @throws IOException If the file could not be written to.
+     * @see ASCIITable#exportTo(Path)
+     */
+    long exportTo(Path file, long windowSize) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("The file is null.");
+
+        int rowsCount = data.getRowsCount();
+        if (rowsCount < 0)
+            throw new UnsupportedOperationException("Tables whose rows can only be read in order cannot be exported to a file.");
+
+        TableGlyphs glyphs = compileGlyphs();
+        RenderListener listener = this.listener;
+        long startTime = listener == null ? 0 : System.nanoTime();
+
+        // The headers and the bottom of the table are small, so they are rendered up front.
+        StringBuilder top = new StringBuilder();
+        top.append(glyphs.topDivider);
+        appendRow(top, new int[columnsCount][], 0, headers, true);
+        StringBuilder bottom = new StringBuilder();
+        if (rowsCount == 0)
+            appendEmptyMessage(bottom);
+        else
+            bottom.append(glyphs.bottomDivider);
+
+        // Measure the exact size of each chunk of rows.
+        int chunksCount = (rowsCount + PARALLEL_CHUNK_ROWS - 1) / PARALLEL_CHUNK_ROWS;
+        long[] chunkChars = new long[chunksCount];
+        long[] chunkBytes = new long[chunksCount];
+        runExportTasks(chunksCount, chunk -> {
+            StringBuilder buffer = new StringBuilder();
+            appendChunk(buffer, chunk, rowsCount);
+            chunkChars[chunk] = buffer.length();
+            chunkBytes[chunk] = Utf8ByteOutput.encodedLength(buffer);
+        });
+
+        // Group the chunks into windows, each of which starts where the last one ends.
+        List<long[]> windows = new ArrayList<>();
+        long topBytes = Utf8ByteOutput.encodedLength(top);
+        long size = topBytes;
+        long chars = top.length() + bottom.length();
+        for (int chunk = 0; chunk < chunksCount; chunk++) {
+            long[] window = windows.isEmpty() ? null : windows.get(windows.size() - 1);
+            if (window == null || window[3] + chunkBytes[chunk] > windowSize) {
+                // [first chunk, end chunk, offset, size]
+                window = new long[]{chunk, chunk, size, 0};
+                windows.add(window);
+            }
+            window[1]++;
+            window[3] += chunkBytes[chunk];
+            size += chunkBytes[chunk];
+            chars += chunkChars[chunk];
+        }
+        long bottomOffset = size;
+        size += Utf8ByteOutput.encodedLength(bottom);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Allocate the entire file before any of it is mapped.
+            if (size > 0)
+                channel.write(ByteBuffer.allocate(1), size - 1);
+
+            exportMapped(channel, 0, topBytes, top);
+            runExportTasks(windows.size(), index -> {
+                long[] window = windows.get(index);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, window[2], window[3]);
+                Utf8ByteOutput output = new Utf8ByteOutput(mapped, null);
+                StringBuilder buffer = new StringBuilder();
+                for (int chunk = (int) window[0]; chunk < window[1]; chunk++) {
+                    buffer.setLength(0);
+                    appendChunk(buffer, chunk, rowsCount);
+                    appendExported(output, buffer);
+                }
+                output.finish();
+                checkExported(output, window[3]);
+            });
+            exportMapped(channel, bottomOffset, size - bottomOffset, bottom);
+        }
+
+        if (listener != null)
+            listener.onRender(new RenderMetrics(RenderMetrics.Kind.TABLE, System.nanoTime() - startTime, rowsCount, (long) rowsCount * columnsCount, chars, size));
+        return size;
+    }
+
+    /**
+     * Renders a chunk of the rows of the table, each with the divider above it.
+     *
+     * @param buffer    The buffer to render into.
+     * @param chunk     The index of the chunk, each of which holds {@link ASCIITable#PARALLEL_CHUNK_ROWS} rows.
+     * @param rowsCount The number of rows in the table.
+     */
+    private void appendChunk(StringBuilder buffer, int chunk, int rowsCount) {
+        int fromRow = chunk * PARALLEL_CHUNK_ROWS;
+        int toRow = Math.min(rowsCount, fromRow + PARALLEL_CHUNK_ROWS);
+        int[][] rowLineBounds = new int[columnsCount][];
+        TableData.Reader reader = data.newReader();
+        try {
+            for (int row = fromRow; row < toRow; row++) {
+                appendDataRow(buffer, rowLineBounds, row, reader.readRow(row), row == 0);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Encodes the given text into a region of the file which is mapped just for it.
+     *
+     * @param channel The channel of the file.
+     * @param offset  The offset of the region within the file.
+     * @param size    The size of the region, which must be the encoded size of the text.
+     * @param text    The text to encode.
+     * @throws IOException If the region could not be mapped.
+     */
+    private static void exportMapped(FileChannel channel, long offset, long size, CharSequence text) throws IOException {
+        if (size == 0)
+            return;
+
+        Utf8ByteOutput output = new Utf8ByteOutput(channel.map(FileChannel.MapMode.READ_WRITE, offset, size), null);
+        appendExported(output, text);
+        output.finish();
+        checkExported(output, size);
+    }
+
+    /**
+     * Encodes the given text into a window of the file.
+     *
+     * @param output The output of the window.
+     * @param text   The text to encode.
+     * @throws IOException           Never, as nothing is written anywhere but the window.
+     * @throws IllegalStateException If the text does not fit in the window, because the data changed after it was measured.
+     */
+    private static void appendExported(Utf8ByteOutput output, CharSequence text) throws IOException {
+        try {
+            output.append(text);
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("The data of the table changed while it was being exported.", e);
+        }
+    }
+
+    /**
+     * Makes sure that a window of the file was filled exactly.
+     *
+     * @param output The output of the window.
+     * @param size   The size of the window.
+     * @throws IllegalStateException If the window was not filled, because the data changed after it was measured.
+     */
+    private static void checkExported(Utf8ByteOutput output, long size) {
+        if (output.getBytesWritten() != size)
+            throw new IllegalStateException("The data of the table changed while it was being exported.");
+    }
+
+    /**
+     * Runs a number of export tasks, in parallel on the {@link ASCIITable#pool} if there is one,
+     * or in order on the calling thread if not.
+     *
+     * @param tasksCount The number of tasks.
+     * @param task       The task, which is given the index of each task to run.
+     * @throws IOException If any task could not write to the file.
+     */
+    private void runExportTasks(int tasksCount, ExportTask task) throws IOException {
+        if (pool == null || tasksCount < 2) {
+            for (int index = 0; index < tasksCount; index++) {
+                task.run(index);
+            }
+            return;
+        }
+
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>(tasksCount);
+        for (int index = 0; index < tasksCount; index++) {
+            int taskIndex = index;
+            tasks.add(pool.submit(() -> {
+                task.run(taskIndex);
+                return null;
+            }));
+        }
+
+        try {
+            for (ForkJoinTask<Void> forkJoinTask : tasks) {
+                forkJoinTask.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while exporting the table.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * A single task of an export, such as measuring or writing a window of the file.
+     */
+    private interface ExportTask {
+
+        /**
+         * @param index The index of the task.
+         * @throws IOException If the file could not be written to.
+         */
+        void run(int index) throws IOException;
+
+    }
+
+    /**
+     * Creates a block which renders this table line by line, so that it can be nested within a cell of another table
+     * without first being rendered into a String. Each line of the block is rendered as the outer table reaches it.
+     * <p>
+     * The height of the block is measured the first time it is needed, by laying out every row of this table,
+     * so this table should not be changed once its block has been measured.
+     *
+     * @return A block of this table.
+     * @throws UnsupportedOperationException If the table's rows come from a {@link RowSource}, which can only be read in order.
+     * @see ASCIITable#fromData(String[], CharSequence[][])
+     */
+    public Block asBlock() {
+        if (data.getRowsCount() < 0)
+            throw new UnsupportedOperationException("Blocks cannot be created from tables whose rows can only be read in order.");
+
+        return new TableBlock();
+    }
+
+    /**
+     * Renders the entire table using the given buffer, which will not be cleared first.
+     *
+     * @param buffer The buffer to render into. If there is no output, it is grown up front to fit the entire table.
+     * @param output The output to flush the buffer to, or null to keep the entire table in the buffer.
+     * @throws IOException If the output could not be written to.
+     */
+    void renderWith(StringBuilder buffer, Appendable output) throws IOException {
+        int toRow = data.getRowsCount() < 0 ? Integer.MAX_VALUE : data.getRowsCount();
+        if (output == null)
+            buffer.ensureCapacity(buffer.length() + estimateRenderedLength(0, toRow));
+
+        render(buffer, output, 0, toRow);
+    }
+
+    /**
+     * @return The layout of the table, which may be reused by another table once this one will no longer be rendered.
+     */
+    TableLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return The glyphs compiled by the last render of this table, or null if it has not been rendered.
+     */
+    TableGlyphs getGlyphs() {
+        return glyphs;
+    }
+
+    /**
+     * Offers glyphs compiled for a previous table, which are used if they match the format and widths of this table.
+     *
+     * @param glyphs The glyphs to reuse, or null.
+     */
+    void reuseGlyphs(TableGlyphs glyphs) {
+        this.glyphs = glyphs;
+    }
+
+    /**
+     * Makes sure that the given window of rows can be rendered.
+     *
+     * @param fromRow The index of the first row of the window.
+     * @param toRow   The index after the last row of the window.
+     * @throws IllegalArgumentException      If the window is not within the rows of the table.
+     * @throws UnsupportedOperationException If the rows of the table can only be read in order.
+     */
+    private void checkWindow(int fromRow, int toRow) {
+        int rowsCount = data.getRowsCount();
+        if (rowsCount < 0)
+            throw new UnsupportedOperationException("Windows cannot be rendered from tables whose rows can only be read in order.");
+        if (fromRow < 0 || fromRow > toRow || toRow > rowsCount)
+            throw new IllegalArgumentException("The window [" + fromRow + ", " + toRow + ") is not within the " + rowsCount + " rows of the table.");
+    }
+
+    /**
+     * Renders the table, or a window of its rows, into the given buffer.
+     * If an output is supplied, the buffer is flushed to it and cleared after every divider and row,
+     * so that the buffer never holds more than a single row at a time.
+     *
+     * @param buffer  The buffer to render into.
+     * @param output  The output to flush the buffer to, or null to keep the entire table in the buffer.
+     * @param fromRow The index of the first row of the data to render.
+     * @param toRow   The index after the last row of the data to render, or {@link Integer#MAX_VALUE} for every row.
+     * @throws IOException If the output could not be written to.
+     */
+    private void render(StringBuilder buffer, Appendable output, int fromRow, int toRow) throws IOException {
+        // Reused by each row to hold the line bounds of its cells.
+        int[][] rowLineBounds = new int[columnsCount][];
+
+        // Compile the format on the first render, so that every divider below is a single copy.
+        TableGlyphs glyphs = compileGlyphs();
+
+        // Only measure the render when someone is listening.
+        RenderListener listener = this.listener;
+        long startTime = listener == null ? 0 : System.nanoTime();
+        int initialCapacity = buffer.capacity();
+        long chars = 0;
+        int rows = 0;
 
         // Append the table's top horizontal divider.
-        appendHorizontalDivider(output,
-                tableFormat.getTopLeftCorner(),
-                tableFormat.getHorizontalBorderFill(true, false),
-                tableFormat.getTopEdgeBorderDivider(),
-                tableFormat.getTopRightCorner());
+        buffer.append(glyphs.topDivider);
 
         // Append the headers of the table.
-        appendRow(output, headers, true);
+        appendRow(buffer, rowLineBounds, 0, headers, true);
+        chars += flush(buffer, output);
 
         // Check if the data is empty, in which case, we will only write the empty message into the table contents.
-        if (data.length == 0) {
-            // Horizontal divider below the headers
-            appendHorizontalDivider(output, tableFormat.getLeftEdgeBorderDivider(true),
-                    tableFormat.getHorizontalBorderFill(false, true),
-                    tableFormat.getCross(true, true),
-                    tableFormat.getRightEdgeBorderDivider(true));
+        TableData.Reader reader = data.newReader();
+        try {
+            CharSequence[] firstRow = fromRow < toRow ? reader.readRow(fromRow) : null;
+            if (firstRow == null) {
+                appendEmptyMessage(buffer);
+            } else {
+                // The data is not empty, so iterate over each row.
+                if (pool != null && data.getRowsCount() >= 0 && toRow - fromRow >= PARALLEL_CHUNK_ROWS * 2) {
+                    chars += appendRowsInParallel(buffer, output, fromRow, toRow);
+                    rows = toRow - fromRow;
+                } else {
+                    int row = fromRow;
+                    for (CharSequence[] rowData = firstRow; rowData != null; rowData = ++row < toRow ? reader.readRow(row) : null) {
+                        appendDataRow(buffer, rowLineBounds, row, rowData, row == fromRow);
+                        chars += flush(buffer, output);
+                    }
+                    rows = row - fromRow;
+                }
 
-            // Empty message row
-            output.append(tableFormat.getVerticalBorderFill(true))
-                    .append(pad(emptyWidth, Align.LEFT, emptyMessage))
-                    .append(tableFormat.getVerticalBorderFill(true))
-                    .append('\n');
+                // Horizontal divider at the bottom of the table.
+                buffer.append(glyphs.bottomDivider);
+            }
+        } finally {
+            reader.close();
+        }
+        chars += flush(buffer, output);
 
-            // Horizontal divider at the bottom of the table.
-            appendHorizontalDivider(output,
-                    tableFormat.getBottomLeftCorner(),
-                    tableFormat.getHorizontalBorderFill(true, false),
-                    tableFormat.getHorizontalBorderFill(true, false),
-                    tableFormat.getBottomRightCorner());
+        if (listener != null) {
+            if (output == null)
+                chars = buffer.length();
+            long bytes = output instanceof Utf8ByteOutput ? ((Utf8ByteOutput) output).getBytesWritten() : -1;
+            listener.onRender(new RenderMetrics(RenderMetrics.Kind.TABLE, System.nanoTime() - startTime, rows, (long) rows * columnsCount, chars, bytes));
 
-            return output.toString();
+            // The buffer is only sized up front when it holds the entire table.
+            if (output == null && buffer.capacity() > initialCapacity)
+                listener.onBufferGrowth(RenderMetrics.Kind.TABLE, initialCapacity, buffer.capacity());
         }
+    }
 
-        // The data is not empty, so iterate over each row.
-        for (int row = 0; row < data.length; row++) {
+    /**
+     * Compiles the {@link ASCIITable#tableFormat} for the widths of this table, unless it has already been compiled.
+     *
+     * @return The compiled format.
+     */
+    private TableGlyphs compileGlyphs() {
+        TableGlyphs glyphs = this.glyphs;
+        if (glyphs == null || !glyphs.matches(tableFormat, columnWidths)) {
+            glyphs = TableGlyphs.compile(tableFormat, columnWidths);
+            this.glyphs = glyphs;
+        }
+        return glyphs;
+    }
 
-            // The first row has a different style of border than the others.
-            if (row == 0)
-                appendHorizontalDivider(output,
-                        tableFormat.getLeftEdgeBorderDivider(true),
-                        tableFormat.getHorizontalBorderFill(false, true),
-                        tableFormat.getCross(true, false),
-                        tableFormat.getRightEdgeBorderDivider(true));
-            else
-                appendHorizontalDivider(output,
-                        tableFormat.getLeftEdgeBorderDivider(false),
-                        tableFormat.getHorizontalBorderFill(false, false),
-                        tableFormat.getCross(false, false),
-                        tableFormat.getRightEdgeBorderDivider(false));
+    /**
+     * Appends the empty message in place of the rows of the table, along with the dividers above and below it.
+     *
+     * @param output The output to append to.
+     */
+    private void appendEmptyMessage(StringBuilder output) {
+        // Horizontal divider below the headers
+        output.append(glyphs.emptyHeadersDivider);
 
-            // Append the data for the current row.
-            appendRow(output, data[row], false);
-        }
+        // Empty message row
+        output.append(glyphs.edgeVerticalFill)
+                .append(' ');
+        appendPadded(output, emptyWidth, Align.LEFT, emptyMessage, 0, emptyMessage.length());
+        output.append(' ')
+                .append(glyphs.edgeVerticalFill)
+                .append('\n');
 
         // Horizontal divider at the bottom of the table.
-        appendHorizontalDivider(output,
-                tableFormat.getBottomLeftCorner(),
-                tableFormat.getHorizontalBorderFill(true, false),
-                tableFormat.getBottomEdgeBorderDivider(),
-                tableFormat.getBottomRightCorner());
+        output.append(glyphs.emptyBottomDivider);
+    }
 
-        return output.toString();
+    /**
+     * Appends a row of the data, along with the horizontal divider above it.
+     *
+     * @param output        The output to append to.
+     * @param rowLineBounds An array with an index for each column, used to hold the line bounds of each cell.
+     * @param row           The index of the row within the data.
+     * @param rowData       The cells of the row.
+     * @param isFirst       True if the row is the first to be rendered, directly below the headers.
+     */
+    private void appendDataRow(StringBuilder output, int[][] rowLineBounds, int row, CharSequence[] rowData, boolean isFirst) {
+        // The first row has a different style of border than the others.
+        output.append(isFirst ? glyphs.headersDivider : glyphs.rowsDivider);
+
+        // Append the data for the current row.
+        appendRow(output, rowLineBounds, row + 1, rowData, false);
+    }
+
+    /**
+     * Renders rows of the data in chunks on the {@link ASCIITable#pool}, appending the chunks to the buffer in order.
+     * When an output is supplied, only a few chunks per thread are rendered ahead of the output at any one time.
+     *
+     * @param buffer   The buffer to render into.
+     * @param output   The output to flush the buffer to, or null to keep the entire table in the buffer.
+     * @param firstRow The index of the first row of the data to render.
+     * @param endRow   The index after the last row of the data to render.
+     * @return The number of characters flushed to the output.
+     * @throws IOException If the output could not be written to.
+     */
+    private long appendRowsInParallel(StringBuilder buffer, Appendable output, int firstRow, int endRow) throws IOException {
+        long chars = 0;
+        int chunksCount = (endRow - firstRow + PARALLEL_CHUNK_ROWS - 1) / PARALLEL_CHUNK_ROWS;
+        int chunksPerWindow = output == null ? chunksCount : 2 * pool.getParallelism();
+
+        List<ForkJoinTask<StringBuilder>> chunks = new ArrayList<>(Math.min(chunksCount, chunksPerWindow));
+        for (int firstChunk = 0; firstChunk < chunksCount; firstChunk += chunksPerWindow) {
+            // Start rendering every chunk in the window.
+            for (int chunk = firstChunk; chunk < Math.min(chunksCount, firstChunk + chunksPerWindow); chunk++) {
+                int fromRow = firstRow + chunk * PARALLEL_CHUNK_ROWS;
+                int toRow = Math.min(endRow, fromRow + PARALLEL_CHUNK_ROWS);
+                chunks.add(pool.submit(() -> {
+                    StringBuilder chunkOutput = new StringBuilder();
+                    TableData.Reader reader = data.newReader();
+                    try {
+                        int[][] rowLineBounds = new int[columnsCount][];
+                        for (int row = fromRow; row < toRow; row++) {
+                            appendDataRow(chunkOutput, rowLineBounds, row, reader.readRow(row), row == firstRow);
+                        }
+                    } finally {
+                        reader.close();
+                    }
+                    return chunkOutput;
+                }));
+            }
+
+            // Append them in order as they finish.
+            for (ForkJoinTask<StringBuilder> chunk : chunks) {
+                buffer.append(chunk.join());
+                chars += flush(buffer, output);
+            }
+            chunks.clear();
+        }
+        return chars;
+    }
+
+    /**
+     * Moves the contents of the buffer to the output, if there is one.
+     *
+     * @param buffer The buffer to flush.
+     * @param output The output to flush to, or null if the buffer should keep its contents.
+     * @return The number of characters flushed to the output.
+     * @throws IOException If the output could not be written to.
+     */
+    private static int flush(StringBuilder buffer, Appendable output) throws IOException {
+        if (output == null)
+            return 0;
+
+        int length = buffer.length();
+        output.append(buffer);
+        buffer.setLength(0);
+        return length;
     }
 
     /**
      * Appends the given data as a row to the output with appropriate borders.
      *
-     * @param output The output to append to.
-     * @param data   The data of the row to append. Each index corresponds to a column.
+     * @param output        The output to append to.
+     * @param rowLineBounds An array with an index for each column, used to hold the line bounds of each cell.
+     * @param row           The row within the {@link ASCIITable#layout}, where 0 is the headers.
+     * @param data          The data of the row to append. Each index corresponds to a column.
+     * @param isHeader      True if the row is the headers of the table.
      */
-    private void appendRow(StringBuilder output, String[] data, boolean isHeader) {
-        // Step 1: Determine the row height from the maximum number of lines out of each cell.
-        int rowHeight = 0;
+    private void appendRow(StringBuilder output, int[][] rowLineBounds, int row, CharSequence[] data, boolean isHeader) {
+        // Step 1: Determine the row height and the lines of each cell from the layout.
+        int rowHeight = layout.layoutRow(row, data, nullValue, nullValueLineBounds, rowLineBounds);
+
+        // Blocks write their own lines, so each needs a writer for the duration of the row.
+        Block.LineWriter[] blockWriters = null;
         for (int column = 0; column < columnsCount; column++) {
-            // The height of this cell.
-            int cellHeight = nullSafeData(data[column]).split("\\n").length;
-            // Choose the greatest.
-            rowHeight = Math.max(rowHeight, cellHeight);
+            if (data[column] instanceof Block) {
+                if (blockWriters == null)
+                    blockWriters = new Block.LineWriter[columnsCount];
+                blockWriters[column] = ((Block) data[column]).newLineWriter();
+            }
         }
 
         // Step 2: Append the data to the output.
+        TableGlyphs glyphs = this.glyphs;
         // Iterate over each line of text, using the row height calculated earlier.
         for (int line = 0; line < rowHeight; line++) {
 
@@ -226,72 +1103,362 @@ public class ASCIITable {
             for (int column = 0; column < columnsCount; column++) {
 
                 // Either add the left or the middle borders, depending on the location of the column.
-                output.append(tableFormat.getVerticalBorderFill(column == 0));
-
-                // Split the data on its newlines to determine the contents of each line in the column.
-                String[] cellLines = nullSafeData(data[column]).split("\\n");
+                output.append(column == 0 ? glyphs.edgeVerticalFill : glyphs.innerVerticalFill);
 
-                // Decide what to put into this column. Use empty data if there is no specific data for this column.
-                String cellLine = line < cellLines.length ? cellLines[line] : "";
-
-                // Pad and append the data.
-                Align align = Align.LEFT;
-                if (!isHeader) {
-                    align = aligns[column];
-                }
-                output.append(pad(columnWidths[column], align, cellLine));
+                output.append(' ');
+                appendCellLine(output, glyphs, column, data[column], rowLineBounds[column],
+                        blockWriters == null ? null : blockWriters[column], line, isHeader);
+                output.append(' ');
             }
 
             // Add the right border.
-            output.append(tableFormat.getVerticalBorderFill(true)).append('\n');
+            output.append(glyphs.edgeVerticalFill).append('\n');
         }
     }
 
-    private String nullSafeData(String data) {
-        return data == null ? nullValue : data;
+    /**
+     * Appends a single line of a cell, padded or truncated to the width of its column, without the borders around it.
+     *
+     * @param output      The output to append to.
+     * @param glyphs      The compiled format of the table.
+     * @param column      The column of the cell.
+     * @param cell        The data of the cell, or null to use the {@link ASCIITable#nullValue}.
+     * @param lineBounds  The line bounds of the cell, or null if it is a single line or a {@link Block}.
+     * @param blockWriter The writer of the lines of the cell, if it is a {@link Block}; otherwise null.
+     * @param line        The index of the line within the row.
+     * @param isHeader    True if the cell is one of the headers of the table.
+     */
+    private void appendCellLine(StringBuilder output, TableGlyphs glyphs, int column, CharSequence cell, int[] lineBounds,
+                                Block.LineWriter blockWriter, int line, boolean isHeader) {
+        // Headers are always aligned to the left.
+        Align align = isHeader ? Align.LEFT : aligns[column];
+        if (blockWriter != null) {
+            appendBlockLine(output, glyphs, columnWidths[column], align, (Block) cell, blockWriter, line);
+            return;
+        }
+
+        if (cell == null)
+            cell = nullValueCell;
+
+        // Values which repeat throughout the table are padded once, then copied.
+        if (cell instanceof DictionaryValue && lineBounds == null && cell.length() <= columnWidths[column]) {
+            if (line == 0)
+                output.append(((DictionaryValue) cell).pad(columnWidths[column], align));
+            else
+                appendRepeated(output, ' ', columnWidths[column]);
+            return;
+        }
+
+        // Decide what to put into this column. Use empty data if there is no specific data for this column.
+        int start = 0;
+        int end = 0;
+        if (lineBounds == null) {
+            if (line == 0)
+                end = cell.length();
+        } else if (line * 2 < lineBounds.length) {
+            start = lineBounds[line * 2];
+            end = lineBounds[line * 2 + 1];
+        }
+
+        if (end - start > columnWidths[column]) {
+            // The line overflows its column, which only happens when the widths were not measured exactly.
+            appendTruncated(output, glyphs, columnWidths[column], cell, start, end);
+        } else {
+            // Pad and append the data.
+            appendPadded(output, columnWidths[column], align, cell, start, end);
+        }
     }
 
     /**
-     * Appends a horizontal divider to the output using the given characters.
-     * <p>
-     * Example output: (L = Left, F = Fill, M = Middle, R = Right)
-     * ╚════╧═══════╧════╧═══════╝
-     * LFFFMFFFFFFMFFFMFFFFFFR
+     * Renders a single cell of the data on its own, as it would appear within a row of the given height.
+     * Each line of the cell is exactly as wide as its column, and the lines are appended one after another
+     * without borders or newlines between them.
      *
      * @param output The output to append to.
-     * @param left   The left border character.
-     * @param fill   The fill border character.
-     * @param middle The middle border character.
-     * @param right  The right border character.
+     * @param cell   The data of the cell, or null to use the {@link ASCIITable#nullValue}.
+     * @param column The column of the cell.
+     * @param height The number of lines in the row of the cell.
      */
-    private void appendHorizontalDivider(StringBuilder output, char left, char fill, char middle, char right) {
+    void appendCell(StringBuilder output, CharSequence cell, int column, int height) {
+        TableGlyphs glyphs = compileGlyphs();
 
-        // For each column...
-        for (int column = 0; column < columnsCount; column++) {
-            // Either add the left or the middle borders, depending on the location of the column.
-            output.append(column == 0 ? left : middle);
+        int[] lineBounds = null;
+        Block.LineWriter blockWriter = null;
+        if (cell instanceof Block) {
+            blockWriter = ((Block) cell).newLineWriter();
+        } else {
+            CharSequence text = cell == null ? nullValue : cell;
+            lineBounds = cell == null ? nullValueLineBounds : TableLayout.scanLines(cell);
+            if (layout.overflow == Overflow.WRAP && columnWidths[column] > 0)
+                lineBounds = TableLayout.wrapLines(text, lineBounds, columnWidths[column]);
+        }
 
-            // For the contents of the column, create a padding of the correct width and replace it with the fill border.
-            output.append(pad(columnWidths[column], Align.LEFT, "").replace(' ', fill));
+        for (int line = 0; line < height; line++) {
+            appendCellLine(output, glyphs, column, cell, lineBounds, blockWriter, line, false);
         }
+    }
 
-        // Add the right border
-        output.append(right).append('\n');
+    /**
+     * Appends the next line of a block, padded or truncated to the specified width.
+     * Lines past the bottom of the block are left blank.
+     *
+     * @param output The output to append to.
+     * @param glyphs The compiled format of the table.
+     * @param width  The width of the column.
+     * @param align  The side of the column that the block should be aligned to.
+     * @param block  The block.
+     * @param writer The writer of the lines of the block.
+     * @param line   The index of the line within the row.
+     */
+    private void appendBlockLine(StringBuilder output, TableGlyphs glyphs, int width, Align align, Block block, Block.LineWriter writer, int line) {
+        if (line >= block.getHeight()) {
+            appendRepeated(output, ' ', width);
+            return;
+        }
+
+        int padding = width - block.getWidth();
+        if (padding >= 0) {
+            if (align == Align.RIGHT)
+                appendRepeated(output, ' ', padding);
+            writer.appendLine(output);
+            if (align != Align.RIGHT)
+                appendRepeated(output, ' ', padding);
+            return;
+        }
+
+        // The block is wider than its column, which only happens when the widths were not measured exactly.
+        int start = output.length();
+        writer.appendLine(output);
+        output.setLength(start + width);
+        if (layout.overflow == Overflow.ELLIPSIS && width > 0)
+            output.setCharAt(start + width - 1, glyphs.ellipsis);
     }
 
     /**
-     * Pads the given data to the specified width using spaces.
+     * Appends as much of the given data as will fit within the specified width,
+     * replacing the last character with the table format's ellipsis if the layout calls for it.
      *
-     * @param width The width desired.
-     * @param data  The data to pad.
-     * @return The data, padded with spaces to the given width.
+     * @param output The output to append to.
+     * @param glyphs The compiled format of the table.
+     * @param width  The width available.
+     * @param data   The data to truncate.
+     * @param start  The index of the first character of the data to append.
+     * @param end    The index after the last character of the data to append.
      */
-    private static String pad(int width, Align align, String data) {
-        if (align == null || align == Align.LEFT) {
-            return String.format(" %1$-" + width + "s ", data);
+    private void appendTruncated(StringBuilder output, TableGlyphs glyphs, int width, CharSequence data, int start, int end) {
+        if (layout.overflow == Overflow.ELLIPSIS && width > 0) {
+            output.append(data, start, start + width - 1).append(glyphs.ellipsis);
         } else {
-            return String.format(" %1$" + width + "s ", data);
+            output.append(data, start, Math.min(end, start + width));
         }
     }
 
+    /**
+     * Appends the given data to the output, padded with spaces to the specified width.
+     * Data which is already wider than the width is appended as-is.
+     *
+     * @param output The output to append to.
+     * @param width  The width desired.
+     * @param align  The side of the padding that the data should be aligned to.
+     * @param data   The data to pad.
+     * @param start  The index of the first character of the data to append.
+     * @param end    The index after the last character of the data to append.
+     */
+    private static void appendPadded(StringBuilder output, int width, Align align, CharSequence data, int start, int end) {
+        int padding = width - (end - start);
+        if (align == Align.RIGHT) {
+            appendRepeated(output, ' ', padding);
+            output.append(data, start, end);
+        } else {
+            output.append(data, start, end);
+            appendRepeated(output, ' ', padding);
+        }
+    }
+
+    /**
+     * Appends the given character to the output a number of times.
+     *
+     * @param output The output to append to.
+     * @param c      The character to append.
+     * @param count  The number of times to append the character. Nothing is appended if this is not positive.
+     */
+    private static void appendRepeated(StringBuilder output, char c, int count) {
+        for (int i = 0; i < count; i++) {
+            output.append(c);
+        }
+    }
+
+    /**
+     * Estimates the number of characters in the rendered table from its layout.
+     * This is exact unless the table contains null cells which are rendered taller than the rest of their row,
+     * or rows which were not measured or are wrapped.
+     *
+     * @param fromRow The index of the first row of the data to render.
+     * @param toRow   The index after the last row of the data to render, or {@link Integer#MAX_VALUE} for every row.
+     * @return The estimated length of the rendered table.
+     */
+    private int estimateRenderedLength(int fromRow, int toRow) {
+        // Each line holds every column plus its padding and left border, then the right border and a newline.
+        int lineLength = 2;
+        for (int columnWidth : columnWidths) {
+            lineLength += columnWidth + 3;
+        }
+
+        if (toRow == Integer.MAX_VALUE) {
+            // The number of rows is not known until they are rendered, so only count those which were measured.
+            toRow = layout.getMeasuredRowsCount() - 1;
+        }
+
+        // The top divider, headers, divider under the headers, and the bottom divider.
+        long lines = 3 + layout.getRowHeight(0);
+        if (fromRow >= toRow) {
+            // The empty message.
+            lines++;
+        } else {
+            // Each row, with a divider above all but the first.
+            lines += toRow - fromRow - 1;
+            for (int row = fromRow; row < toRow; row++) {
+                lines += layout.getRowHeight(row + 1);
+            }
+        }
+
+        // Tables this large cannot be held in a single String anyway.
+        return (int) Math.min(Integer.MAX_VALUE - 8, lineLength * lines);
+    }
+
+    /**
+     * A block which renders its table one row at a time, handing out the lines of each row as they are needed.
+     */
+    private final class TableBlock extends Block {
+
+        /**
+         * The number of lines in the table, or -1 if it has not been measured yet.
+         */
+        private int height = -1;
+
+        @Override
+        public int getWidth() {
+            // Each column plus its padding and left border, then the right border.
+            int width = 1;
+            for (int columnWidth : columnWidths) {
+                width += columnWidth + 3;
+            }
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            if (height < 0) {
+                int[][] rowLineBounds = new int[columnsCount][];
+
+                // The top divider, the headers, and the divider under the headers.
+                int height = 2 + layout.layoutRow(0, headers, nullValue, nullValueLineBounds, rowLineBounds);
+
+                TableData.Reader reader = data.newReader();
+                try {
+                    int row = 0;
+                    for (CharSequence[] rowData = reader.readRow(0); rowData != null; rowData = reader.readRow(++row)) {
+                        // Each row, with a divider above all but the first.
+                        height += (row == 0 ? 0 : 1) + layout.layoutRow(row + 1, rowData, nullValue, nullValueLineBounds, rowLineBounds);
+                    }
+
+                    // The empty message, and the bottom divider.
+                    height += row == 0 ? 2 : 1;
+                } finally {
+                    reader.close();
+                }
+
+                this.height = height;
+            }
+            return height;
+        }
+
+        @Override
+        public LineWriter newLineWriter() {
+            return new TableLineWriter(getWidth());
+        }
+
+    }
+
+    /**
+     * Writes the lines of a table, rendering each row into a buffer as its first line is reached.
+     * Every line of a table is the same width, so the lines can be handed out without searching for newlines.
+     */
+    private final class TableLineWriter implements Block.LineWriter {
+
+        private final int width;
+        private final StringBuilder buffer = new StringBuilder();
+        private final int[][] rowLineBounds = new int[columnsCount][];
+
+        /**
+         * The reader of the rows of the table, or null if the headers have not been rendered yet.
+         */
+        private TableData.Reader reader;
+
+        /**
+         * The index of the next row to render.
+         */
+        private int row;
+
+        /**
+         * True once the bottom of the table has been rendered.
+         */
+        private boolean finished;
+
+        /**
+         * The index within the buffer of the next line.
+         */
+        private int position;
+
+        /**
+         * @param width The width of each line of the table.
+         */
+        TableLineWriter(int width) {
+            this.width = width;
+        }
+
+        @Override
+        public void appendLine(StringBuilder output) {
+            if (position >= buffer.length())
+                renderNextRow();
+
+            output.append(buffer, position, position + width);
+            position += width + 1;
+        }
+
+        /**
+         * Replaces the buffer with the next rows of the table, including the dividers around them.
+         */
+        private void renderNextRow() {
+            if (finished)
+                throw new IllegalStateException("Every line of the table has already been written.");
+
+            buffer.setLength(0);
+            position = 0;
+
+            if (reader == null) {
+                TableGlyphs glyphs = compileGlyphs();
+                buffer.append(glyphs.topDivider);
+                appendRow(buffer, rowLineBounds, 0, headers, true);
+                reader = data.newReader();
+                return;
+            }
+
+            CharSequence[] rowData = reader.readRow(row);
+            if (rowData != null) {
+                appendDataRow(buffer, rowLineBounds, row, rowData, row == 0);
+                row++;
+                return;
+            }
+
+            reader.close();
+            finished = true;
+            if (row == 0)
+                appendEmptyMessage(buffer);
+            else
+                buffer.append(glyphs.bottomDivider);
+        }
+
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.mitchtalmadge.asciidata.table;
+
+/**
+ * Table data backed by an array of rows, in the format CharSequence[row][column].
+ *
+ * @author MitchTalmadge
+ */
+final class ArrayTableData extends TableData {
+
+    private final CharSequence[][] data;
+
+    /**
+     * A single reader can be shared by every thread, as it never reuses anything between reads.
+     */
+    private final Reader reader = new Reader() {
+        @Override
+        CharSequence[] readRow(int row) {
+            return row < data.length ? data[row] : null;
+        }
+    };
+
+    /**
+     * @param data         The data, in the format CharSequence[row][column].
+     * @param columnsCount The number of columns that every row must have.
+     * @throws IllegalArgumentException If any row does not have the given number of columns.
+     */
+    ArrayTableData(CharSequence[][] data, int columnsCount) {
+        // Make sure every row has enough columns.
+        for (int row = 0; row < data.length; row++) {
+            if (data[row].length != columnsCount)
+                throw new IllegalArgumentException("The number of columns in row " + row + " (" + data[row].length + ") " +
+                        "do not match the number of headers (" + columnsCount + ")");
+        }
+
+        this.data = data;
+    }
+
+    @Override
+    int getRowsCount() {
+        return data.length;
+    }
+
+    @Override
+    Reader newReader() {
+        return reader;
+    }
+
+}
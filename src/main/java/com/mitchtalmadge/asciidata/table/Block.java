@@ -0,0 +1,87 @@
+package com.mitchtalmadge.asciidata.table;
+
+/**
+ * A rectangular block of text which writes its own lines, such as a table nested within the cell of another table.
+ * See {@link ASCIITable#asBlock()}.
+ * <p>
+ * When a block is placed in a cell, the table measures it by its width and height and streams its lines straight
+ * into the output, so the block never has to be rendered into a String and split back into lines.
+ * <p>
+ * Blocks are also CharSequences, whose text is every line of the block separated by newlines,
+ * so that they may be used wherever text is expected. This text is only built the first time that it is needed.
+ *
+ * @author MitchTalmadge
+ */
+public abstract class Block implements CharSequence {
+
+    /**
+     * The text of the block, built the first time that it is needed.
+     */
+    private String text;
+
+    /**
+     * @return The number of characters in every line of the block.
+     */
+    public abstract int getWidth();
+
+    /**
+     * @return The number of lines in the block.
+     */
+    public abstract int getHeight();
+
+    /**
+     * Creates a writer which writes the lines of the block, in order, from the first line.
+     *
+     * @return A new writer for the lines of the block.
+     */
+    public abstract LineWriter newLineWriter();
+
+    /**
+     * Writes the lines of a block, one at a time.
+     */
+    public interface LineWriter {
+
+        /**
+         * Appends the next line of the block to the output, without a trailing newline.
+         * The line must be exactly as wide as the block.
+         *
+         * @param output The output to append to.
+         */
+        void appendLine(StringBuilder output);
+
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (text == null) {
+            int width = getWidth();
+            int height = getHeight();
+
+            StringBuilder builder = new StringBuilder(Math.max(0, (width + 1) * height - 1));
+            LineWriter writer = newLineWriter();
+            for (int line = 0; line < height; line++) {
+                if (line > 0)
+                    builder.append('\n');
+                writer.appendLine(builder);
+            }
+            text = builder.toString();
+        }
+        return text;
+    }
+
+}
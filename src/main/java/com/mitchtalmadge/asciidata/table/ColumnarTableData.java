@@ -0,0 +1,56 @@
+package com.mitchtalmadge.asciidata.table;
+
+/**
+ * Table data backed by a {@link TableColumn} for each column.
+ *
+ * @author MitchTalmadge
+ */
+final class ColumnarTableData extends TableData {
+
+    private final TableColumn[] columns;
+    private final int rowsCount;
+
+    /**
+     * @param columns The columns of the data.
+     * @throws IllegalArgumentException If the columns do not all have the same number of values.
+     */
+    ColumnarTableData(TableColumn[] columns) {
+        this.columns = columns;
+        this.rowsCount = columns[0].size();
+
+        // Make sure every column has the same number of rows.
+        for (int column = 1; column < columns.length; column++) {
+            if (columns[column].size() != rowsCount)
+                throw new IllegalArgumentException("The number of values in column " + column + " (" + columns[column].size() + ") " +
+                        "do not match the number of values in column 0 (" + rowsCount + ")");
+        }
+    }
+
+    @Override
+    int getRowsCount() {
+        return rowsCount;
+    }
+
+    @Override
+    Reader newReader() {
+        NumberCell[] numberCells = new NumberCell[columns.length];
+        CharSequence[] cells = new CharSequence[columns.length];
+        for (int column = 0; column < columns.length; column++) {
+            numberCells[column] = new NumberCell();
+        }
+
+        return new Reader() {
+            @Override
+            CharSequence[] readRow(int row) {
+                if (row >= rowsCount)
+                    return null;
+
+                for (int column = 0; column < columns.length; column++) {
+                    cells[column] = columns[column].read(row, numberCells[column]);
+                }
+                return cells;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,287 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Parses delimited text, such as CSV or TSV, one record at a time.
+ * <p>
+ * Records are parsed straight out of a buffer which is refilled from the input as needed, and each field is a view of
+ * the buffer rather than a copy. Quoted fields are unquoted in place. The buffer only grows when a single record
+ * does not fit in it, so the memory used depends on the longest record rather than the length of the input.
+ *
+ * @author MitchTalmadge
+ */
+final class DelimitedParser implements Closeable {
+
+    /**
+     * The number of characters that the buffer starts with, and reads from the input at a time.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader input;
+    private final char delimiter;
+
+    /**
+     * True if fields may be quoted with '"', as in CSV.
+     */
+    private final boolean quoted;
+
+    private char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * The index of the buffer where the next record begins.
+     */
+    private int position;
+
+    /**
+     * The index after the last character read into the buffer.
+     */
+    private int limit;
+
+    /**
+     * True once the input has no more characters.
+     */
+    private boolean endOfInput;
+
+    /**
+     * The fields of the current record, reused by each record.
+     */
+    private Field[] fields = new Field[0];
+
+    /**
+     * The number of fields in the current record.
+     */
+    private int fieldsCount;
+
+    /**
+     * @param input     The input to parse.
+     * @param delimiter The character between each field of a record.
+     * @param quoted    True if fields may be quoted with '"', as in CSV.
+     */
+    DelimitedParser(Reader input, char delimiter, boolean quoted) {
+        this.input = input;
+        this.delimiter = delimiter;
+        this.quoted = quoted;
+    }
+
+    /**
+     * Parses the next record, which replaces the fields of the previous record.
+     *
+     * @return False if there are no more records.
+     * @throws IOException If the input could not be read.
+     */
+    boolean nextRecord() throws IOException {
+        // Find the end of the record, reading more of the input until it is in the buffer.
+        int recordStart = position;
+        int index = position;
+        // Quotes are tracked the same way as splitFields: a field is only quoted when it begins with a quote,
+        // and a doubled quote within a quoted field closes and immediately reopens it.
+        boolean inQuotes = false;
+        boolean fieldStart = true;
+        boolean closedQuote = false;
+        while (true) {
+            if (index == limit) {
+                if (endOfInput)
+                    break;
+
+                int shift = fill(recordStart);
+                recordStart -= shift;
+                index -= shift;
+                continue;
+            }
+
+            char c = buffer[index];
+            if (c == '"' && quoted) {
+                if (inQuotes) {
+                    inQuotes = false;
+                    closedQuote = true;
+                } else if (fieldStart || closedQuote) {
+                    inQuotes = true;
+                    closedQuote = false;
+                }
+                fieldStart = false;
+            } else if (c == '\n' && !inQuotes) {
+                break;
+            } else {
+                fieldStart = c == delimiter && !inQuotes;
+                closedQuote = false;
+            }
+            index++;
+        }
+
+        if (index == recordStart && index == limit) {
+            // Nothing is left but, at most, the newline which ended the last record.
+            // The buffer may have been shifted while looking for more input, so the position is moved with it.
+            position = limit;
+            fieldsCount = 0;
+            return false;
+        }
+
+        int recordEnd = index;
+        position = index < limit ? index + 1 : index;
+        if (recordEnd > recordStart && buffer[recordEnd - 1] == '\r')
+            recordEnd--;
+
+        splitFields(recordStart, recordEnd);
+        return true;
+    }
+
+    /**
+     * Splits a record into its fields.
+     *
+     * @param start The index of the buffer where the record begins.
+     * @param end   The index of the buffer after the record ends, not including its newline.
+     */
+    private void splitFields(int start, int end) {
+        fieldsCount = 0;
+        int index = start;
+        while (true) {
+            int fieldStart = index;
+            int fieldEnd;
+            if (quoted && index < end && buffer[index] == '"') {
+                // Unquote the field in place, replacing each doubled quote with a single quote.
+                int write = index + 1;
+                fieldStart = write;
+                index++;
+                while (index < end) {
+                    char c = buffer[index++];
+                    if (c == '"') {
+                        if (index < end && buffer[index] == '"') {
+                            index++;
+                        } else {
+                            break;
+                        }
+                    }
+                    buffer[write++] = c;
+                }
+                fieldEnd = write;
+
+                // Anything between the closing quote and the delimiter is ignored.
+                while (index < end && buffer[index] != delimiter)
+                    index++;
+            } else {
+                while (index < end && buffer[index] != delimiter)
+                    index++;
+                fieldEnd = index;
+            }
+
+            addField(fieldStart, fieldEnd);
+            if (index >= end)
+                return;
+
+            // Skip the delimiter.
+            index++;
+        }
+    }
+
+    /**
+     * Adds a field to the current record.
+     *
+     * @param start The index of the buffer where the field begins.
+     * @param end   The index of the buffer after the field ends.
+     */
+    private void addField(int start, int end) {
+        if (fieldsCount == fields.length) {
+            fields = Arrays.copyOf(fields, Math.max(8, fieldsCount * 2));
+            for (int i = fieldsCount; i < fields.length; i++) {
+                fields[i] = new Field();
+            }
+        }
+
+        Field field = fields[fieldsCount++];
+        field.chars = buffer;
+        field.start = start;
+        field.end = end;
+    }
+
+    /**
+     * Reads more of the input into the buffer, first moving the record being parsed to the start of the buffer,
+     * or growing the buffer if the record already fills it.
+     *
+     * @param recordStart The index of the buffer where the record being parsed begins.
+     * @return The number of characters that the record was moved back by.
+     * @throws IOException If the input could not be read.
+     */
+    private int fill(int recordStart) throws IOException {
+        int shift = recordStart;
+        if (shift > 0) {
+            System.arraycopy(buffer, recordStart, buffer, 0, limit - recordStart);
+            limit -= shift;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0)
+            endOfInput = true;
+        else
+            limit += read;
+        return shift;
+    }
+
+    /**
+     * @return The number of fields in the current record.
+     */
+    int getFieldsCount() {
+        return fieldsCount;
+    }
+
+    /**
+     * @param index The index of the field.
+     * @return The field, which is only valid until the next record is parsed.
+     */
+    CharSequence getField(int index) {
+        return fields[index];
+    }
+
+    /**
+     * @return Copies of the fields of the current record, which remain valid after the next record is parsed.
+     */
+    String[] copyFields() {
+        String[] copies = new String[fieldsCount];
+        for (int i = 0; i < fieldsCount; i++) {
+            copies[i] = fields[i].toString();
+        }
+        return copies;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * A field of the current record, which is a view of the parser's buffer.
+     */
+    private static final class Field implements CharSequence {
+
+        private char[] chars;
+        private int start;
+        private int end;
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, this.start + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, start, end - start);
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table data parsed lazily from {@link DelimitedText}. The number of rows is not known until every row has been read.
+ * <p>
+ * The cells of each row are views of the parser's buffer, so no String is created for them.
+ * Two-pass text is parsed again for each reader, skipping the headers. One-pass text is parsed only once, shared between
+ * exactly two readers, the same as a one-pass {@link RowSource}: the first measures the table, keeping a copy of each
+ * row it reads; the second renders the table, first from the kept rows and then from the rest of the text.
+ *
+ * @author MitchTalmadge
+ */
+final class DelimitedTableData extends TableData {
+
+    private final DelimitedText text;
+    private final int columnsCount;
+
+    /**
+     * The parser of one-pass text, which has already parsed the headers.
+     */
+    private final DelimitedParser onePassParser;
+
+    /**
+     * The rows of one-pass text which were read while measuring, and have not yet been rendered.
+     */
+    private final List<String[]> keptRows = new ArrayList<>();
+
+    /**
+     * The number of readers created so far for one-pass text.
+     */
+    private int onePassReadersCount;
+
+    /**
+     * @param text          The text.
+     * @param columnsCount  The number of columns that every row must have.
+     * @param onePassParser The parser of one-pass text, which has already parsed the headers; or null for two-pass text.
+     */
+    DelimitedTableData(DelimitedText text, int columnsCount, DelimitedParser onePassParser) {
+        this.text = text;
+        this.columnsCount = columnsCount;
+        this.onePassParser = onePassParser;
+    }
+
+    /**
+     * Parses the headers of the given text.
+     *
+     * @param parser The parser of the text, which has not parsed anything yet.
+     * @return The headers.
+     * @throws IOException              If the text could not be read.
+     * @throws IllegalArgumentException If the text is empty.
+     */
+    static String[] parseHeaders(DelimitedParser parser) throws IOException {
+        if (!parser.nextRecord())
+            throw new IllegalArgumentException("The text has no headers.");
+
+        return parser.copyFields();
+    }
+
+    @Override
+    int getRowsCount() {
+        return -1;
+    }
+
+    @Override
+    Reader newReader() {
+        if (text.isReiterable()) {
+            try {
+                DelimitedParser parser = text.parse();
+                // Skip the headers.
+                parser.nextRecord();
+                return new ParserReader(parser);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        switch (onePassReadersCount++) {
+            case 0:
+                return new ParserReader(onePassParser) {
+                    @Override
+                    CharSequence[] readRow(int row) {
+                        if (super.readRow(row) == null)
+                            return null;
+
+                        // The cells are only valid until the next row, so the measured rows are copied.
+                        String[] rowData = parser.copyFields();
+                        keptRows.add(rowData);
+                        return rowData;
+                    }
+
+                    @Override
+                    void close() {
+                        // The parse continues with the next reader.
+                    }
+                };
+            case 1:
+                return new ParserReader(onePassParser) {
+                    @Override
+                    CharSequence[] readRow(int row) {
+                        if (row < keptRows.size()) {
+                            // Let go of kept rows as soon as they are rendered.
+                            return keptRows.set(row, null);
+                        }
+                        return super.readRow(row);
+                    }
+                };
+            default:
+                throw new IllegalStateException("A table made from one-pass text can only be rendered once.");
+        }
+    }
+
+    /**
+     * Reads rows from a parser, in order.
+     */
+    private class ParserReader extends Reader {
+
+        final DelimitedParser parser;
+        private final CharSequence[] cells = new CharSequence[columnsCount];
+
+        ParserReader(DelimitedParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        CharSequence[] readRow(int row) {
+            try {
+                if (!parser.nextRecord())
+                    return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // Make sure we have enough columns.
+            if (parser.getFieldsCount() != columnsCount)
+                throw new IllegalArgumentException("The number of columns in row " + row + " (" + parser.getFieldsCount() + ") " +
+                        "do not match the number of headers (" + columnsCount + ")");
+
+            for (int column = 0; column < columnsCount; column++) {
+                cells[column] = parser.getField(column);
+            }
+            return cells;
+        }
+
+        @Override
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+}
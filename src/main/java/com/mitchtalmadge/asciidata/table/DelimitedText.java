@@ -0,0 +1,124 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Delimited text, such as CSV or TSV, whose first record holds the headers of a table and whose other records hold its rows.
+ * The text is parsed as the table is measured and rendered, so it is never held in memory as a whole.
+ * <p>
+ * Text read from a file can be parsed as many times as needed, like a two-pass {@link RowSource}.
+ * Text read from a {@link Reader} can only be parsed once, like a one-pass {@link RowSource},
+ * so it must be used with a {@link WidthStrategy} which measures a bounded number of rows.
+ * <p>
+ * CSV fields may be quoted with '"', within which delimiters and newlines are part of the field and a doubled quote
+ * is a single quote. TSV fields are never quoted. Records may end with either "\n" or "\r\n".
+ * <p>
+ * See {@link ASCIITable#fromDelimited(DelimitedText, WidthStrategy)}.
+ *
+ * @author MitchTalmadge
+ */
+public final class DelimitedText {
+
+    private final Path file;
+    private final char delimiter;
+    private final boolean quoted;
+
+    /**
+     * The parser of a one-pass text, until it has been taken by a table.
+     */
+    private DelimitedParser onePassParser;
+
+    private DelimitedText(Path file, Reader reader, char delimiter, boolean quoted) {
+        this.file = file;
+        this.delimiter = delimiter;
+        this.quoted = quoted;
+        if (reader != null)
+            this.onePassParser = new DelimitedParser(reader, delimiter, quoted);
+    }
+
+    /**
+     * Creates two-pass CSV text, read from the given UTF-8 file each time it is needed.
+     *
+     * @param file The file.
+     * @return A new DelimitedText.
+     */
+    public static DelimitedText csv(Path file) {
+        return fromFile(file, ',', true);
+    }
+
+    /**
+     * Creates one-pass CSV text, read from the given reader. The reader is closed once every row has been rendered.
+     *
+     * @param reader The reader.
+     * @return A new DelimitedText.
+     */
+    public static DelimitedText csv(Reader reader) {
+        return fromReader(reader, ',', true);
+    }
+
+    /**
+     * Creates two-pass TSV text, read from the given UTF-8 file each time it is needed.
+     *
+     * @param file The file.
+     * @return A new DelimitedText.
+     */
+    public static DelimitedText tsv(Path file) {
+        return fromFile(file, '\t', false);
+    }
+
+    /**
+     * Creates one-pass TSV text, read from the given reader. The reader is closed once every row has been rendered.
+     *
+     * @param reader The reader.
+     * @return A new DelimitedText.
+     */
+    public static DelimitedText tsv(Reader reader) {
+        return fromReader(reader, '\t', false);
+    }
+
+    private static DelimitedText fromFile(Path file, char delimiter, boolean quoted) {
+        if (file == null)
+            throw new IllegalArgumentException("The file is null.");
+
+        return new DelimitedText(file, null, delimiter, quoted);
+    }
+
+    private static DelimitedText fromReader(Reader reader, char delimiter, boolean quoted) {
+        if (reader == null)
+            throw new IllegalArgumentException("The reader is null.");
+
+        return new DelimitedText(null, reader, delimiter, quoted);
+    }
+
+    /**
+     * @return True if the text can be parsed more than once.
+     */
+    boolean isReiterable() {
+        return file != null;
+    }
+
+    /**
+     * Begins parsing the text, from its first record.
+     *
+     * @return The parser.
+     * @throws IOException           If the file could not be opened.
+     * @throws IllegalStateException If the text is one-pass, and has already been parsed.
+     */
+    DelimitedParser parse() throws IOException {
+        if (file != null)
+            return new DelimitedParser(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), delimiter, quoted);
+
+        if (onePassParser == null)
+            throw new IllegalStateException("This text can only be parsed once.");
+
+        DelimitedParser parser = onePassParser;
+        onePassParser = null;
+        return parser;
+    }
+
+}
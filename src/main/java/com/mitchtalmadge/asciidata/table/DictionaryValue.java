@@ -0,0 +1,112 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.util.Arrays;
+
+/**
+ * A value which appears many times within a table, such as a single category of a {@link TableColumn.Categories}
+ * column, or the table's null value.
+ * <p>
+ * Its lines are scanned once, when it is created, and it is padded and aligned once for each width and alignment
+ * that it is rendered at, so that each occurrence of it in the table is a single copy.
+ *
+ * @author MitchTalmadge
+ */
+final class DictionaryValue implements CharSequence {
+
+    /**
+     * The most paddings kept by each value. A value is normally rendered in a single column, but the null value
+     * may be rendered in every column of the table.
+     */
+    private static final int MAX_PADDINGS = 8;
+
+    private final String value;
+
+    /**
+     * The line bounds of the value, or null if it is a single line.
+     *
+     * @see TableLayout#scanLines(CharSequence)
+     */
+    final int[] lineBounds;
+
+    /**
+     * The value padded to each width and alignment it has been rendered at, most recent last.
+     * The array is replaced rather than changed, so that it can be read by many threads at once.
+     */
+    private volatile Padding[] paddings = new Padding[0];
+
+    /**
+     * @param value The value.
+     */
+    DictionaryValue(String value) {
+        this.value = value;
+        this.lineBounds = TableLayout.scanLines(value);
+    }
+
+    /**
+     * Pads the value with spaces to the given width. The value must be a single line no wider than the width.
+     *
+     * @param width The width desired.
+     * @param align The side of the padding that the value should be aligned to.
+     * @return The padded value, which must not be modified.
+     */
+    char[] pad(int width, Align align) {
+        Padding[] paddings = this.paddings;
+        for (int i = paddings.length - 1; i >= 0; i--) {
+            if (paddings[i].width == width && paddings[i].align == align)
+                return paddings[i].chars;
+        }
+
+        char[] chars = new char[width];
+        Arrays.fill(chars, ' ');
+        value.getChars(0, value.length(), chars, align == Align.RIGHT ? width - value.length() : 0);
+
+        // Keep the most recent paddings, dropping the oldest once there are too many.
+        Padding[] newPaddings;
+        if (paddings.length < MAX_PADDINGS) {
+            newPaddings = Arrays.copyOf(paddings, paddings.length + 1);
+        } else {
+            newPaddings = Arrays.copyOfRange(paddings, 1, paddings.length + 1);
+        }
+        newPaddings[newPaddings.length - 1] = new Padding(width, align, chars);
+        this.paddings = newPaddings;
+        return chars;
+    }
+
+    @Override
+    public int length() {
+        return value.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return value.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return value.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    /**
+     * The value padded to a single width and alignment.
+     */
+    private static final class Padding {
+
+        private final int width;
+        private final Align align;
+        private final char[] chars;
+
+        private Padding(int width, Align align, char[] chars) {
+            this.width = width;
+            this.align = align;
+            this.chars = chars;
+        }
+
+    }
+
+}
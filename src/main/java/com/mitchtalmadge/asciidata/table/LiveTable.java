@@ -0,0 +1,481 @@
+package com.mitchtalmadge.asciidata.table;
+
+import com.mitchtalmadge.asciidata.table.formats.TableFormatAbstract;
+import com.mitchtalmadge.asciidata.table.formats.UTF8TableFormat;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A table which is redrawn in place on a terminal each time its data changes, such as a status table refreshed on a timer.
+ * <p>
+ * The first update draws the entire table. Each update after that compares the new data to the previous frame,
+ * and only overwrites the cells which changed, using ANSI escape sequences to move the cursor to each of them.
+ * The table is only laid out and drawn again in full when the width of a column, the height of a row,
+ * or the number of rows changes.
+ * <p>
+ * The cursor is expected to be left where each update leaves it, which is the start of the line below the table,
+ * and the entire table must fit on the terminal so that the cursor can be moved back up to it.
+ * Columns are always exactly as wide as their widest line, as with {@link WidthStrategy#exact()}.
+ * A {@link Block} is compared by its text, so the same nested table only needs to be rendered once.
+ *
+ * @author MitchTalmadge
+ */
+public final class LiveTable {
+
+    /**
+     * The ANSI Control Sequence Introducer, which begins each cursor movement.
+     */
+    private static final String CSI = "\u001B[";
+
+    private final String[] headers;
+    private final Align[] aligns;
+    private TableFormatAbstract tableFormat = new UTF8TableFormat();
+    private String nullValue = "";
+
+    /**
+     * The widest line of the null value.
+     */
+    private int nullValueWidth = 0;
+
+    /**
+     * The number of lines in the null value, as it appears within a row.
+     */
+    private int nullValueHeight = 1;
+
+    /**
+     * The number of lines in the headers.
+     */
+    private final int headersHeight;
+
+    /**
+     * The table of the previous frame, whose data is {@link LiveTable#cells}; or null if no frame has been drawn.
+     */
+    private ASCIITable table;
+
+    /**
+     * True if the previous frame can no longer be updated one cell at a time, such as when its format has changed.
+     */
+    private boolean invalidated;
+
+    /**
+     * The data of the previous frame, copied so that changes to the caller's arrays can be found.
+     * Text is copied into Strings, while blocks are kept as they are.
+     */
+    private CharSequence[][] cells;
+
+    /**
+     * The widest line of each cell of the previous frame. Null cells are as wide as the null value, as in {@link TableLayout}.
+     */
+    private int[][] cellWidths;
+
+    /**
+     * The number of lines in each cell of the previous frame.
+     */
+    private int[][] cellHeights;
+
+    /**
+     * The widest line of each column of the previous frame, before the {@link ASCIITable} makes room for its empty message.
+     */
+    private int[] measuredWidths;
+
+    /**
+     * The number of lines in each row of the previous frame.
+     */
+    private int[] rowHeights;
+
+    /**
+     * The number of lines in the previous frame.
+     */
+    private int linesCount;
+
+    /**
+     * The cells which changed in the current update, as pairs of [row, column], in order.
+     */
+    private int[] changedCells = new int[16];
+
+    /**
+     * Holds the lines of each changed cell while it is being drawn.
+     */
+    private final StringBuilder cellBuffer = new StringBuilder();
+
+    private LiveTable(String[] headers) {
+        this.headers = headers;
+        this.aligns = new Align[headers.length];
+        Arrays.fill(aligns, Align.LEFT);
+
+        int headersHeight = 0;
+        for (String header : headers) {
+            headersHeight = Math.max(headersHeight, measureHeight(header));
+        }
+        this.headersHeight = headersHeight;
+    }
+
+    /**
+     * Creates a new live table with the given headers, which has not been drawn yet.
+     *
+     * @param headers The headers of the table. Each index is a new column, in order from left to right.
+     * @return A new LiveTable instance.
+     */
+    public static LiveTable fromHeaders(String... headers) {
+        if (headers == null)
+            throw new IllegalArgumentException("The table headers array is null.");
+        if (headers.length == 0)
+            throw new IllegalArgumentException("No headers were supplied.");
+
+        return new LiveTable(headers.clone());
+    }
+
+    /**
+     * Changes the format of the table (how it will be displayed; which characters to use) to the provided format.
+     * If the table has already been drawn, it is drawn again in full on the next update.
+     *
+     * @param tableFormat The format to use. By default, the table will already use {@link UTF8TableFormat}.
+     * @return This LiveTable instance.
+     */
+    public LiveTable withTableFormat(TableFormatAbstract tableFormat) {
+        if (tableFormat == null)
+            throw new IllegalArgumentException("The table format is null.");
+
+        this.tableFormat = tableFormat;
+        this.invalidated = true;
+        return this;
+    }
+
+    /**
+     * Changes the value used for rendering <code>null</code> data.
+     * If the table has already been drawn, it is drawn again in full on the next update.
+     *
+     * @param nullValue The nullValue to use. By default, the table will use an empty string (<code>""</code>).
+     * @return This LiveTable instance.
+     */
+    public LiveTable withNullValue(String nullValue) {
+        if (nullValue == null)
+            throw new IllegalArgumentException("The null value is null.");
+
+        this.nullValue = nullValue;
+        this.nullValueWidth = measureWidth(nullValue);
+        this.nullValueHeight = measureHeight(nullValue);
+        this.invalidated = true;
+        return this;
+    }
+
+    /**
+     * Changes the alignment of the data in a column. Headers are always aligned to the left.
+     * If the table has already been drawn, it is drawn again in full on the next update.
+     *
+     * @param column The index of the column.
+     * @param align  The alignment of the column.
+     * @return This LiveTable instance.
+     */
+    public LiveTable alignColumn(int column, Align align) {
+        if (column < 0 || column >= headers.length)
+            throw new IllegalArgumentException("There is no column " + column + ".");
+        if (align == null)
+            throw new IllegalArgumentException("The alignment is null.");
+
+        this.aligns[column] = align;
+        this.invalidated = true;
+        return this;
+    }
+
+    /**
+     * Forgets the previous frame, such as after the terminal has been cleared,
+     * so that the next update draws the table in full wherever the cursor is.
+     */
+    public void reset() {
+        table = null;
+        cells = null;
+        linesCount = 0;
+    }
+
+    /**
+     * Updates the table with the given data.
+     *
+     * @param data The data of the table, in the format CharSequence[row][column]. Newlines are allowed.
+     * @return The text to write to the terminal, which moves the cursor and overwrites whatever changed since the last update.
+     * @throws IllegalArgumentException If any row does not have the same number of columns as there are headers.
+     */
+    public String update(CharSequence[][] data) {
+        StringBuilder output = new StringBuilder();
+        try {
+            update(data, output);
+        } catch (IOException e) {
+            // Nothing is written anywhere but the StringBuilder, so this cannot happen.
+            throw new IllegalStateException(e);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Updates the table with the given data, writing whatever changed since the last update to the given terminal.
+     *
+     * @param data   The data of the table, in the format CharSequence[row][column]. Newlines are allowed.
+     * @param output The terminal to write to, such as a {@link java.io.Writer} wrapping {@link System#out}.
+     * @throws IOException              If the output could not be written to.
+     * @throws IllegalArgumentException If any row does not have the same number of columns as there are headers.
+     */
+    public void update(CharSequence[][] data, Appendable output) throws IOException {
+        if (output == null)
+            throw new IllegalArgumentException("The output is null.");
+
+        // Set the data to empty if it is null.
+        if (data == null)
+            data = new CharSequence[0][0];
+
+        // Make sure every row has enough columns.
+        for (int row = 0; row < data.length; row++) {
+            if (data[row].length != headers.length)
+                throw new IllegalArgumentException("The number of columns in row " + row + " (" + data[row].length + ") " +
+                        "do not match the number of headers (" + headers.length + ")");
+        }
+
+        if (table == null || invalidated || data.length != cells.length) {
+            redraw(data, output);
+        } else {
+            int changedCount = findChangedCells(data);
+            if (changedCount < 0)
+                redraw(data, output);
+            else if (changedCount > 0)
+                drawChangedCells(changedCount, output);
+        }
+    }
+
+    /**
+     * Compares the given data to the previous frame, copying any cells which changed into the frame.
+     *
+     * @param data The new data, which has the same number of rows as the previous frame.
+     * @return The number of cells which changed, or -1 if the layout of the table changed.
+     */
+    private int findChangedCells(CharSequence[][] data) {
+        int columnsCount = headers.length;
+        int changedCount = 0;
+        boolean[] shrunkColumns = null;
+        boolean layoutChanged = false;
+
+        for (int row = 0; row < data.length; row++) {
+            boolean rowChanged = false;
+            for (int column = 0; column < columnsCount; column++) {
+                CharSequence cell = data[row][column];
+                CharSequence previous = cells[row][column];
+                if (cell == null ? previous == null : previous != null && previous.toString().contentEquals(cell))
+                    continue;
+
+                int previousWidth = cellWidths[row][column];
+                copyCell(row, column, cell);
+                rowChanged = true;
+
+                if (changedCount * 2 == changedCells.length)
+                    changedCells = Arrays.copyOf(changedCells, changedCells.length * 2);
+                changedCells[changedCount * 2] = row;
+                changedCells[changedCount * 2 + 1] = column;
+                changedCount++;
+
+                int width = cellWidths[row][column];
+                if (width > measuredWidths[column]) {
+                    measuredWidths[column] = width;
+                    layoutChanged = true;
+                } else if (width < previousWidth && previousWidth == measuredWidths[column]) {
+                    // The widest cell of the column may have shrunk, which is checked once every cell has been copied.
+                    if (shrunkColumns == null)
+                        shrunkColumns = new boolean[columnsCount];
+                    shrunkColumns[column] = true;
+                }
+            }
+
+            if (rowChanged) {
+                int rowHeight = 0;
+                for (int column = 0; column < columnsCount; column++) {
+                    rowHeight = Math.max(rowHeight, cellHeights[row][column]);
+                }
+                if (rowHeight != rowHeights[row]) {
+                    rowHeights[row] = rowHeight;
+                    layoutChanged = true;
+                }
+            }
+        }
+
+        if (shrunkColumns != null) {
+            for (int column = 0; column < columnsCount; column++) {
+                if (shrunkColumns[column] && measureColumn(column) != measuredWidths[column])
+                    layoutChanged = true;
+            }
+        }
+
+        return layoutChanged ? -1 : changedCount;
+    }
+
+    /**
+     * Overwrites each changed cell of the previous frame, moving the cursor to each line of each cell,
+     * then returns the cursor to the line below the table.
+     *
+     * @param changedCount The number of cells in {@link LiveTable#changedCells}.
+     * @param output       The terminal to write to.
+     * @throws IOException If the output could not be written to.
+     */
+    private void drawChangedCells(int changedCount, Appendable output) throws IOException {
+        int[] columnWidths = table.getLayout().columnWidths;
+
+        // The first line of the first row is below the top divider, the headers, and the divider below them.
+        int rowLine = headersHeight + 2;
+        int currentRow = 0;
+        int cursorLine = linesCount;
+
+        for (int i = 0; i < changedCount; i++) {
+            int row = changedCells[i * 2];
+            int column = changedCells[i * 2 + 1];
+
+            // Each row is followed by a divider.
+            for (; currentRow < row; currentRow++) {
+                rowLine += rowHeights[currentRow] + 1;
+            }
+
+            // The left border, then each column before this one with its padding and border, then the padding of this one.
+            int offset = 2;
+            for (int previousColumn = 0; previousColumn < column; previousColumn++) {
+                offset += columnWidths[previousColumn] + 3;
+            }
+
+            int width = columnWidths[column];
+            cellBuffer.setLength(0);
+            table.appendCell(cellBuffer, cells[row][column], column, rowHeights[row]);
+            for (int line = 0; line < rowHeights[row]; line++) {
+                moveCursor(output, cursorLine, rowLine + line);
+                cursorLine = rowLine + line;
+                output.append(CSI).append(Integer.toString(offset + 1)).append('G');
+                output.append(cellBuffer, line * width, (line + 1) * width);
+            }
+        }
+
+        moveCursor(output, cursorLine, linesCount);
+        output.append('\r');
+    }
+
+    /**
+     * Draws the entire table, over the previous frame if there is one, and remembers it as the new previous frame.
+     *
+     * @param data   The data of the table.
+     * @param output The terminal to write to.
+     * @throws IOException If the output could not be written to.
+     */
+    private void redraw(CharSequence[][] data, Appendable output) throws IOException {
+        int columnsCount = headers.length;
+        if (cells == null || cells.length != data.length) {
+            cells = new CharSequence[data.length][columnsCount];
+            cellWidths = new int[data.length][columnsCount];
+            cellHeights = new int[data.length][columnsCount];
+            rowHeights = new int[data.length];
+        }
+        for (int row = 0; row < data.length; row++) {
+            int rowHeight = 0;
+            for (int column = 0; column < columnsCount; column++) {
+                copyCell(row, column, data[row][column]);
+                rowHeight = Math.max(rowHeight, cellHeights[row][column]);
+            }
+            rowHeights[row] = rowHeight;
+        }
+
+        measuredWidths = new int[columnsCount];
+        for (int column = 0; column < columnsCount; column++) {
+            measuredWidths[column] = measureColumn(column);
+        }
+
+        table = ASCIITable.fromData(headers, cells)
+                .withTableFormat(tableFormat)
+                .withNullValue(nullValue);
+        for (int column = 0; column < columnsCount; column++) {
+            if (aligns[column] != Align.LEFT)
+                table.alignColumn(column, aligns[column]);
+        }
+        invalidated = false;
+
+        // Return to the top of the previous frame and clear it, since the new frame may be narrower or shorter.
+        if (linesCount > 0)
+            output.append(CSI).append(Integer.toString(linesCount)).append('A').append('\r').append(CSI).append('J');
+        table.renderTo(output);
+
+        // The top divider, the headers, the divider below them, then the rows or the empty message, then the bottom divider.
+        int linesCount = headersHeight + 3;
+        if (data.length == 0) {
+            linesCount++;
+        } else {
+            linesCount += data.length - 1;
+            for (int rowHeight : rowHeights) {
+                linesCount += rowHeight;
+            }
+        }
+        this.linesCount = linesCount;
+    }
+
+    /**
+     * Copies a cell into the previous frame, measuring its width and height.
+     *
+     * @param row    The row of the cell.
+     * @param column The column of the cell.
+     * @param cell   The data of the cell.
+     */
+    private void copyCell(int row, int column, CharSequence cell) {
+        if (cell == null) {
+            cells[row][column] = null;
+            cellWidths[row][column] = nullValueWidth;
+            cellHeights[row][column] = nullValueHeight;
+        } else if (cell instanceof Block) {
+            Block block = (Block) cell;
+            cells[row][column] = block;
+            cellWidths[row][column] = block.getWidth();
+            cellHeights[row][column] = block.getHeight();
+        } else {
+            String text = cell.toString();
+            cells[row][column] = text;
+
+            int[] bounds = TableLayout.scanLines(text);
+            cellWidths[row][column] = TableLayout.measureWidth(text, bounds);
+            cellHeights[row][column] = bounds == null ? 1 : bounds.length / 2;
+        }
+    }
+
+    /**
+     * @param column The column.
+     * @return The widest line of the headers and every cell of the given column.
+     */
+    private int measureColumn(int column) {
+        int width = measureWidth(headers[column]);
+        for (int[] rowWidths : cellWidths) {
+            width = Math.max(width, rowWidths[column]);
+        }
+        return width;
+    }
+
+    /**
+     * @param text The text.
+     * @return The width of the widest line of the text.
+     */
+    private static int measureWidth(String text) {
+        return TableLayout.measureWidth(text, TableLayout.scanLines(text));
+    }
+
+    /**
+     * @param text The text.
+     * @return The number of lines that the text takes up within a row.
+     */
+    private static int measureHeight(String text) {
+        int[] bounds = TableLayout.scanLines(text);
+        return bounds == null ? 1 : bounds.length / 2;
+    }
+
+    /**
+     * Moves the cursor up or down from one line of the table to another.
+     *
+     * @param output The terminal to write to.
+     * @param from   The line that the cursor is on.
+     * @param to     The line to move the cursor to.
+     * @throws IOException If the output could not be written to.
+     */
+    private static void moveCursor(Appendable output, int from, int to) throws IOException {
+        if (to < from)
+            output.append(CSI).append(Integer.toString(from - to)).append('A');
+        else if (to > from)
+            output.append(CSI).append(Integer.toString(to - from)).append('B');
+    }
+
+}
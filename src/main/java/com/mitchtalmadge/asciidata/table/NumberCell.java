@@ -0,0 +1,182 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A reusable cell which formats numbers into its own characters, so that numeric data can be measured and
+ * rendered without boxing the numbers or creating a String for each of them.
+ * <p>
+ * The contents of the cell change each time a number is set, so it is only valid until the next number is set.
+ *
+ * @author MitchTalmadge
+ */
+final class NumberCell implements CharSequence {
+
+    /**
+     * Powers of ten which can be used to scale a double to a fixed number of decimal places, indexed by exponent.
+     */
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L
+    };
+
+    /**
+     * Doubles which are scaled to this magnitude or greater can no longer be rounded precisely,
+     * and are formatted with a {@link BigDecimal} instead.
+     */
+    private static final double MAX_PRECISE_SCALED_VALUE = 1e15;
+
+    private char[] chars = new char[32];
+    private int length;
+
+    /**
+     * Formats the given value as a whole number.
+     *
+     * @param value             The value.
+     * @param groupingSeparator The character placed between each group of three digits, or 0 for none.
+     * @return This cell.
+     */
+    NumberCell setLong(long value, char groupingSeparator) {
+        length = 0;
+        if (value < 0)
+            chars[length++] = '-';
+        appendDigits(value, groupingSeparator);
+        return this;
+    }
+
+    /**
+     * Formats the given value with a fixed number of decimal places, rounding half away from zero.
+     *
+     * @param value             The value.
+     * @param decimals          The number of decimal places.
+     * @param groupingSeparator The character placed between each group of three digits of the whole part, or 0 for none.
+     * @return This cell.
+     */
+    NumberCell setDouble(double value, int decimals, char groupingSeparator) {
+        length = 0;
+
+        if (Double.isNaN(value))
+            return setText("NaN");
+        if (Double.isInfinite(value))
+            return setText(value > 0 ? "Infinity" : "-Infinity");
+
+        double scaledValue = Math.abs(value) * (decimals < POWERS_OF_TEN.length ? POWERS_OF_TEN[decimals] : 0);
+        if (decimals >= POWERS_OF_TEN.length || scaledValue >= MAX_PRECISE_SCALED_VALUE)
+            return setBigDecimal(BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP), groupingSeparator);
+
+        // The value is rounded as its decimal digits (those of Double.toString) would be, the same as a BigDecimal.
+        // The scaled double is within a few ulps of those digits scaled, so it can be rounded directly unless it is
+        // that close to halfway between two whole numbers, in which case only the digits themselves can decide.
+        long scaled = (long) scaledValue;
+        double remainder = scaledValue - scaled;
+        if (Math.abs(remainder - 0.5) <= 4 * Math.ulp(scaledValue))
+            return setBigDecimal(BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP), groupingSeparator);
+        if (remainder > 0.5)
+            scaled++;
+        if (value < 0 && scaled != 0)
+            chars[length++] = '-';
+
+        appendDigits(scaled / POWERS_OF_TEN[decimals], groupingSeparator);
+        if (decimals > 0) {
+            chars[length++] = '.';
+
+            // Write the fraction right to left, so that it is padded with leading zeros.
+            long fraction = scaled % POWERS_OF_TEN[decimals];
+            length += decimals;
+            for (int i = length - 1; i >= length - decimals; i--) {
+                chars[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends the digits of the given value, ignoring its sign.
+     *
+     * @param value             The value.
+     * @param groupingSeparator The character placed between each group of three digits, or 0 for none.
+     */
+    private void appendDigits(long value, char groupingSeparator) {
+        // Work with negative numbers, since Long.MIN_VALUE has no positive counterpart.
+        long negative = value < 0 ? value : -value;
+
+        int digits = 1;
+        for (long remaining = negative / 10; remaining != 0; remaining /= 10) {
+            digits++;
+        }
+        int width = digits + (groupingSeparator == 0 ? 0 : (digits - 1) / 3);
+
+        // Write the digits right to left.
+        length += width;
+        int position = length;
+        for (int digit = 1; digit <= digits; digit++) {
+            chars[--position] = (char) ('0' - negative % 10);
+            negative /= 10;
+            if (groupingSeparator != 0 && digit % 3 == 0 && digit < digits)
+                chars[--position] = groupingSeparator;
+        }
+    }
+
+    /**
+     * Formats a value which is too large to be rounded with longs.
+     *
+     * @param value             The value, already rounded to the desired number of decimal places.
+     * @param groupingSeparator The character placed between each group of three digits of the whole part, or 0 for none.
+     * @return This cell.
+     */
+    private NumberCell setBigDecimal(BigDecimal value, char groupingSeparator) {
+        String plain = value.toPlainString();
+        int wholeStart = plain.startsWith("-") ? 1 : 0;
+        int wholeEnd = plain.indexOf('.');
+        if (wholeEnd < 0)
+            wholeEnd = plain.length();
+
+        ensureCapacity(plain.length() * 2);
+        for (int i = 0; i < plain.length(); i++) {
+            if (groupingSeparator != 0 && i > wholeStart && i < wholeEnd && (wholeEnd - i) % 3 == 0)
+                chars[length++] = groupingSeparator;
+            chars[length++] = plain.charAt(i);
+        }
+        return this;
+    }
+
+    private NumberCell setText(String text) {
+        text.getChars(0, text.length(), chars, 0);
+        length = text.length();
+        return this;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (chars.length < capacity)
+            chars = new char[capacity];
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + length);
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is out of bounds for length " + length);
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+
+}
@@ -0,0 +1,308 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rows of a table stored outside of the Java heap, in direct buffers, so that tables of many millions of rows
+ * do not fill the heap with Strings for the garbage collector to trace.
+ * <p>
+ * Each cell is stored as one byte per character when every character fits in a byte (ISO-8859-1), and as two bytes per
+ * character otherwise. An index of the offset and length of each cell is stored alongside them, also outside the heap.
+ * When a table is rendered, each cell is read as a view of its bytes, so no String is created for it.
+ * <p>
+ * The width of each column is tracked as rows are added, so a table made from these rows never has to measure them.
+ * Rows must not be added while a table made from them is being rendered. The buffers are freed once these rows,
+ * and every table made from them, can be garbage collected.
+ * <p>
+ * See {@link ASCIITable#fromOffHeap(OffHeapRows)}.
+ *
+ * @author MitchTalmadge
+ */
+public final class OffHeapRows {
+
+    /**
+     * The size of the first buffer of cell data. Each buffer after it is twice as large, up to {@link OffHeapRows#MAX_DATA_BUFFER_SIZE}.
+     */
+    private static final int MIN_DATA_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The size of the largest buffer of cell data, unless a single cell needs more.
+     */
+    private static final int MAX_DATA_BUFFER_SIZE = 1 << 24;
+
+    /**
+     * The number of cells in each buffer of the index.
+     */
+    private static final int INDEX_BUFFER_CELLS = 1 << 16;
+
+    /**
+     * The number of bytes in the index for each cell: the buffer of its data, its offset within that buffer, and its
+     * length, which is shifted left by one to make room for a flag marking two bytes per character.
+     */
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    /**
+     * The length stored in the index for null cells.
+     */
+    private static final int NULL_LENGTH = -1;
+
+    private final String[] headers;
+
+    /**
+     * The widest line found so far in each column, including the headers.
+     */
+    private final int[] columnWidths;
+
+    /**
+     * Whether each column holds any null cells so far, which are as wide as the null value of the table made from them.
+     */
+    private final boolean[] nullColumns;
+
+    private final List<ByteBuffer> dataBuffers = new ArrayList<>();
+    private final List<ByteBuffer> indexBuffers = new ArrayList<>();
+
+    /**
+     * The number of rows added so far.
+     */
+    private int rowsCount;
+
+    private OffHeapRows(String[] headers) {
+        this.headers = headers;
+        this.columnWidths = new int[headers.length];
+        this.nullColumns = new boolean[headers.length];
+        for (int column = 0; column < headers.length; column++) {
+            columnWidths[column] = measureWidth(headers[column]);
+        }
+    }
+
+    /**
+     * Creates a new, empty set of rows for a table with the given headers.
+     *
+     * @param headers The headers of the table. Each index is a new column, in order from left to right.
+     * @return A new OffHeapRows instance.
+     */
+    public static OffHeapRows withHeaders(String... headers) {
+        if (headers == null)
+            throw new IllegalArgumentException("The table headers array is null.");
+        if (headers.length == 0)
+            throw new IllegalArgumentException("No headers were supplied.");
+
+        return new OffHeapRows(headers.clone());
+    }
+
+    /**
+     * Adds a row, copying each of its cells out of the heap.
+     *
+     * @param cells The cells of the row, one for each header. Newlines are allowed, and null cells are rendered as the
+     *              table's null value.
+     * @return This OffHeapRows instance.
+     * @throws IllegalArgumentException If the row does not have the same number of cells as there are headers.
+     */
+    public OffHeapRows add(CharSequence... cells) {
+        if (cells == null)
+            throw new IllegalArgumentException("The row is null.");
+        if (cells.length != headers.length)
+            throw new IllegalArgumentException("The number of columns in row " + rowsCount + " (" + cells.length + ") " +
+                    "do not match the number of headers (" + headers.length + ")");
+
+        for (int column = 0; column < cells.length; column++) {
+            addCell(cells[column], column);
+        }
+        rowsCount++;
+        return this;
+    }
+
+    /**
+     * Stores a single cell and its entry in the index.
+     *
+     * @param cell   The cell, or null.
+     * @param column The column of the cell.
+     */
+    private void addCell(CharSequence cell, int column) {
+        long cellIndex = (long) rowsCount * headers.length + column;
+        if (cellIndex >= (long) indexBuffers.size() * INDEX_BUFFER_CELLS)
+            indexBuffers.add(ByteBuffer.allocateDirect(INDEX_BUFFER_CELLS * INDEX_ENTRY_SIZE));
+        ByteBuffer index = indexBuffers.get((int) (cellIndex / INDEX_BUFFER_CELLS));
+        int entry = (int) (cellIndex % INDEX_BUFFER_CELLS) * INDEX_ENTRY_SIZE;
+
+        if (cell == null) {
+            index.putInt(entry, 0).putInt(entry + 4, 0).putInt(entry + 8, NULL_LENGTH);
+            nullColumns[column] = true;
+            return;
+        }
+
+        int length = cell.length();
+        boolean wide = false;
+        for (int i = 0; i < length; i++) {
+            if (cell.charAt(i) > 0xFF) {
+                wide = true;
+                break;
+            }
+        }
+
+        ByteBuffer data = reserve(wide ? length * 2 : length);
+        int offset = data.position();
+        if (wide) {
+            for (int i = 0; i < length; i++) {
+                data.putChar(cell.charAt(i));
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                data.put((byte) cell.charAt(i));
+            }
+        }
+
+        index.putInt(entry, dataBuffers.size() - 1).putInt(entry + 4, offset).putInt(entry + 8, length << 1 | (wide ? 1 : 0));
+        columnWidths[column] = Math.max(columnWidths[column], measureWidth(cell));
+    }
+
+    /**
+     * Makes sure that the last buffer of cell data has room for the given number of bytes, adding a new buffer if not.
+     *
+     * @param bytes The number of bytes needed.
+     * @return The buffer to write the bytes to, at its position.
+     */
+    private ByteBuffer reserve(int bytes) {
+        ByteBuffer data = dataBuffers.isEmpty() ? null : dataBuffers.get(dataBuffers.size() - 1);
+        if (data != null && data.remaining() >= bytes)
+            return data;
+
+        int size = data == null ? MIN_DATA_BUFFER_SIZE : Math.min(MAX_DATA_BUFFER_SIZE, data.capacity() * 2);
+        data = ByteBuffer.allocateDirect(Math.max(size, bytes));
+        dataBuffers.add(data);
+        return data;
+    }
+
+    /**
+     * @param text The text.
+     * @return The width of the widest line of the text.
+     */
+    private static int measureWidth(CharSequence text) {
+        return TableLayout.measureWidth(text, TableLayout.scanLines(text));
+    }
+
+    /**
+     * @return The number of rows added so far.
+     */
+    public int getRowsCount() {
+        return rowsCount;
+    }
+
+    /**
+     * @return The headers of the table.
+     */
+    String[] getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return The widest line of each column so far, including the headers, not counting null cells.
+     */
+    int[] getColumnWidths() {
+        return columnWidths.clone();
+    }
+
+    /**
+     * @return Whether each column holds any null cells so far.
+     */
+    boolean[] getNullColumns() {
+        return nullColumns.clone();
+    }
+
+    /**
+     * Creates table data of the rows added so far. Rows added afterwards are not part of the data.
+     *
+     * @return The data.
+     */
+    TableData toTableData() {
+        int rowsCount = this.rowsCount;
+        int columnsCount = headers.length;
+        return new TableData() {
+            @Override
+            int getRowsCount() {
+                return rowsCount;
+            }
+
+            @Override
+            Reader newReader() {
+                OffHeapCell[] views = new OffHeapCell[columnsCount];
+                CharSequence[] cells = new CharSequence[columnsCount];
+                for (int column = 0; column < columnsCount; column++) {
+                    views[column] = new OffHeapCell();
+                }
+
+                return new Reader() {
+                    @Override
+                    CharSequence[] readRow(int row) {
+                        if (row >= rowsCount)
+                            return null;
+
+                        for (int column = 0; column < columnsCount; column++) {
+                            long cellIndex = (long) row * columnsCount + column;
+                            ByteBuffer index = indexBuffers.get((int) (cellIndex / INDEX_BUFFER_CELLS));
+                            int entry = (int) (cellIndex % INDEX_BUFFER_CELLS) * INDEX_ENTRY_SIZE;
+
+                            int length = index.getInt(entry + 8);
+                            if (length == NULL_LENGTH) {
+                                cells[column] = null;
+                                continue;
+                            }
+
+                            OffHeapCell view = views[column];
+                            view.data = dataBuffers.get(index.getInt(entry));
+                            view.offset = index.getInt(entry + 4);
+                            view.length = length >>> 1;
+                            view.wide = (length & 1) != 0;
+                            cells[column] = view;
+                        }
+                        return cells;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * A cell which is a view of its bytes outside of the heap. Only absolute reads are used, so the buffers can be
+     * read by many threads at once.
+     */
+    private static final class OffHeapCell implements CharSequence {
+
+        private ByteBuffer data;
+        private int offset;
+        private int length;
+
+        /**
+         * True if the cell is stored as two bytes per character, rather than one.
+         */
+        private boolean wide;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return wide ? data.getChar(offset + index * 2) : (char) (data.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+
+    }
+
+}
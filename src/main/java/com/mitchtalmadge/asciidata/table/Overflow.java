@@ -0,0 +1,25 @@
+package com.mitchtalmadge.asciidata.table;
+
+/**
+ * Determines what happens to a line of a cell which is wider than its column.
+ * This can only happen when the column widths are not measured exactly; see {@link WidthStrategy}.
+ */
+public enum Overflow {
+
+    /**
+     * The line is cut off at the width of the column.
+     */
+    TRUNCATE,
+
+    /**
+     * The line is cut off at the width of the column, and its last visible character is replaced
+     * with the table format's ellipsis.
+     */
+    ELLIPSIS,
+
+    /**
+     * The line is wrapped onto as many lines as it needs, making the row taller.
+     */
+    WRAP
+
+}
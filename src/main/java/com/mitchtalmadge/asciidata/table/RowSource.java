@@ -0,0 +1,184 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A source of rows for an {@link ASCIITable} which are pulled lazily as the table is measured and rendered,
+ * so that every row never has to be in memory at once. Each row is in the format String[column].
+ * <p>
+ * Two-pass sources can be iterated as many times as needed: once to measure the table, and again each time it is rendered.
+ * One-pass sources can only be iterated once, so the table can only be rendered once, and only the rows which are
+ * measured are held in memory until they are rendered. One-pass sources must be used with a {@link WidthStrategy}
+ * which measures a bounded number of rows, such as {@link WidthStrategy#sampled(int, Overflow)}.
+ * <p>
+ * See {@link ASCIITable#fromRows(String[], RowSource, WidthStrategy)}.
+ *
+ * @author MitchTalmadge
+ */
+public abstract class RowSource {
+
+    private RowSource() {
+    }
+
+    /**
+     * Creates a two-pass source which calls {@link Iterable#iterator()} each time the rows are needed.
+     *
+     * @param rows The rows.
+     * @return A new RowSource.
+     */
+    public static RowSource fromIterable(Iterable<String[]> rows) {
+        if (rows == null)
+            throw new IllegalArgumentException("The rows are null.");
+
+        return new RowSource() {
+            @Override
+            boolean isReiterable() {
+                return true;
+            }
+
+            @Override
+            Iteration iterate() {
+                return new Iteration(rows.iterator(), null);
+            }
+        };
+    }
+
+    /**
+     * Creates a two-pass source which requests a new stream each time the rows are needed, such as by re-running a query.
+     * Each stream is closed once it is no longer needed.
+     *
+     * @param rows Supplies a new stream of the rows each time it is called.
+     * @return A new RowSource.
+     */
+    public static RowSource fromStreamSupplier(Supplier<Stream<String[]>> rows) {
+        if (rows == null)
+            throw new IllegalArgumentException("The rows are null.");
+
+        return new RowSource() {
+            @Override
+            boolean isReiterable() {
+                return true;
+            }
+
+            @Override
+            Iteration iterate() {
+                Stream<String[]> stream = rows.get();
+                return new Iteration(stream.iterator(), stream);
+            }
+        };
+    }
+
+    /**
+     * Creates a one-pass source from an iterator.
+     *
+     * @param rows The rows.
+     * @return A new RowSource.
+     */
+    public static RowSource fromIterator(Iterator<String[]> rows) {
+        if (rows == null)
+            throw new IllegalArgumentException("The rows are null.");
+
+        return new OnePassRowSource(new Iteration(rows, null));
+    }
+
+    /**
+     * Creates a one-pass source from a spliterator.
+     *
+     * @param rows The rows.
+     * @return A new RowSource.
+     */
+    public static RowSource fromSpliterator(Spliterator<String[]> rows) {
+        if (rows == null)
+            throw new IllegalArgumentException("The rows are null.");
+
+        return new OnePassRowSource(new Iteration(Spliterators.iterator(rows), null));
+    }
+
+    /**
+     * Creates a one-pass source from a stream. The stream is closed once every row has been rendered.
+     *
+     * @param rows The rows.
+     * @return A new RowSource.
+     */
+    public static RowSource fromStream(Stream<String[]> rows) {
+        if (rows == null)
+            throw new IllegalArgumentException("The rows are null.");
+
+        return new OnePassRowSource(new Iteration(rows.iterator(), rows));
+    }
+
+    /**
+     * @return True if the rows can be iterated more than once.
+     */
+    abstract boolean isReiterable();
+
+    /**
+     * Begins an iteration over the rows.
+     *
+     * @return The iteration.
+     * @throws IllegalStateException If the source is one-pass, and has already been iterated.
+     */
+    abstract Iteration iterate();
+
+    /**
+     * A one-pass source, which can only be iterated once.
+     */
+    private static class OnePassRowSource extends RowSource {
+
+        private Iteration iteration;
+
+        OnePassRowSource(Iteration iteration) {
+            this.iteration = iteration;
+        }
+
+        @Override
+        boolean isReiterable() {
+            return false;
+        }
+
+        @Override
+        Iteration iterate() {
+            if (iteration == null)
+                throw new IllegalStateException("This row source can only be iterated once.");
+
+            Iteration iteration = this.iteration;
+            this.iteration = null;
+            return iteration;
+        }
+    }
+
+    /**
+     * A single iteration over the rows of a source, along with anything that must be closed once it is finished.
+     */
+    static final class Iteration {
+
+        final Iterator<String[]> rows;
+        private final AutoCloseable resource;
+
+        Iteration(Iterator<String[]> rows, AutoCloseable resource) {
+            this.rows = rows;
+            this.resource = resource;
+        }
+
+        /**
+         * Closes the resource behind the iteration, if there is one.
+         */
+        void close() {
+            if (resource == null)
+                return;
+
+            try {
+                resource.close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("The row source could not be closed.", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table data pulled lazily from a {@link RowSource}. The number of rows is not known until every row has been read.
+ * <p>
+ * Two-pass sources are iterated again for each reader. One-pass sources are iterated only once, shared between
+ * exactly two readers: the first measures the table, keeping each row it reads; the second renders the table,
+ * first from the kept rows and then from the rest of the iteration.
+ *
+ * @author MitchTalmadge
+ */
+final class RowSourceTableData extends TableData {
+
+    private final RowSource source;
+    private final int columnsCount;
+
+    /**
+     * The single iteration of a one-pass source, once it has begun.
+     */
+    private RowSource.Iteration onePassIteration;
+
+    /**
+     * The rows of a one-pass source which were read while measuring, and have not yet been rendered.
+     */
+    private final List<String[]> keptRows = new ArrayList<>();
+
+    /**
+     * The number of readers created so far for a one-pass source.
+     */
+    private int onePassReadersCount;
+
+    /**
+     * @param source       The source of the rows.
+     * @param columnsCount The number of columns that every row must have.
+     */
+    RowSourceTableData(RowSource source, int columnsCount) {
+        this.source = source;
+        this.columnsCount = columnsCount;
+    }
+
+    @Override
+    int getRowsCount() {
+        return -1;
+    }
+
+    @Override
+    Reader newReader() {
+        if (source.isReiterable())
+            return new IterationReader(source.iterate());
+
+        switch (onePassReadersCount++) {
+            case 0:
+                onePassIteration = source.iterate();
+                return new IterationReader(onePassIteration) {
+                    @Override
+                    CharSequence[] readRow(int row) {
+                        String[] rowData = (String[]) super.readRow(row);
+                        if (rowData != null)
+                            keptRows.add(rowData);
+                        return rowData;
+                    }
+
+                    @Override
+                    void close() {
+                        // The iteration continues with the next reader.
+                    }
+                };
+            case 1:
+                return new IterationReader(onePassIteration) {
+                    @Override
+                    CharSequence[] readRow(int row) {
+                        if (row < keptRows.size()) {
+                            // Let go of kept rows as soon as they are rendered.
+                            return keptRows.set(row, null);
+                        }
+                        return super.readRow(row);
+                    }
+                };
+            default:
+                throw new IllegalStateException("A table made from a one-pass row source can only be rendered once.");
+        }
+    }
+
+    /**
+     * Reads rows from an iteration of the source, in order.
+     */
+    private class IterationReader extends Reader {
+
+        private final RowSource.Iteration iteration;
+
+        IterationReader(RowSource.Iteration iteration) {
+            this.iteration = iteration;
+        }
+
+        @Override
+        CharSequence[] readRow(int row) {
+            if (!iteration.rows.hasNext())
+                return null;
+
+            String[] rowData = iteration.rows.next();
+
+            // Make sure we have enough columns.
+            if (rowData == null)
+                throw new IllegalArgumentException("Row " + row + " is null.");
+            if (rowData.length != columnsCount)
+                throw new IllegalArgumentException("The number of columns in row " + row + " (" + rowData.length + ") " +
+                        "do not match the number of headers (" + columnsCount + ")");
+
+            return rowData;
+        }
+
+        @Override
+        void close() {
+            iteration.close();
+        }
+    }
+
+}
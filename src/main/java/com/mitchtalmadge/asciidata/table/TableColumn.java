@@ -0,0 +1,315 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single column of an {@link ASCIITable}, holding its header and all of its values.
+ * <p>
+ * Numeric columns keep their values as primitives, which are formatted directly into the table as it is
+ * measured and rendered, without boxing them or creating a String for each one.
+ * Columns of categories keep each distinct value once, and only a small code for each row.
+ * See {@link ASCIITable#fromColumns(TableColumn...)}.
+ *
+ * @author MitchTalmadge
+ */
+public abstract class TableColumn {
+
+    private final String header;
+
+    /**
+     * The character placed between each group of three digits, or 0 for none.
+     */
+    char groupingSeparator = 0;
+
+    private TableColumn(String header) {
+        if (header == null)
+            throw new IllegalArgumentException("The column header is null.");
+
+        this.header = header;
+    }
+
+    /**
+     * Creates a column of text. Newlines are allowed, and null values are rendered as the table's null value.
+     *
+     * @param header The header of the column.
+     * @param values The values of the column, one for each row.
+     * @return A new TableColumn.
+     */
+    public static TableColumn ofStrings(String header, String[] values) {
+        checkValues(values);
+        return new TableColumn(header) {
+            @Override
+            int size() {
+                return values.length;
+            }
+
+            @Override
+            CharSequence read(int row, NumberCell cell) {
+                return values[row];
+            }
+        };
+    }
+
+    /**
+     * Creates a column of whole numbers.
+     *
+     * @param header The header of the column.
+     * @param values The values of the column, one for each row.
+     * @return A new TableColumn.
+     */
+    public static TableColumn ofInts(String header, int[] values) {
+        checkValues(values);
+        return new TableColumn(header) {
+            @Override
+            int size() {
+                return values.length;
+            }
+
+            @Override
+            CharSequence read(int row, NumberCell cell) {
+                return cell.setLong(values[row], groupingSeparator);
+            }
+        };
+    }
+
+    /**
+     * Creates a column of whole numbers.
+     *
+     * @param header The header of the column.
+     * @param values The values of the column, one for each row.
+     * @return A new TableColumn.
+     */
+    public static TableColumn ofLongs(String header, long[] values) {
+        checkValues(values);
+        return new TableColumn(header) {
+            @Override
+            int size() {
+                return values.length;
+            }
+
+            @Override
+            CharSequence read(int row, NumberCell cell) {
+                return cell.setLong(values[row], groupingSeparator);
+            }
+        };
+    }
+
+    /**
+     * Creates a column of decimal numbers, each of which is rounded (half away from zero) to a fixed number of decimal places.
+     *
+     * @param header   The header of the column.
+     * @param values   The values of the column, one for each row.
+     * @param decimals The number of decimal places to show.
+     * @return A new TableColumn.
+     */
+    public static TableColumn ofDoubles(String header, double[] values, int decimals) {
+        checkValues(values);
+        if (decimals < 0)
+            throw new IllegalArgumentException("The number of decimal places cannot be negative.");
+
+        return new TableColumn(header) {
+            @Override
+            int size() {
+                return values.length;
+            }
+
+            @Override
+            CharSequence read(int row, NumberCell cell) {
+                return cell.setDouble(values[row], decimals, groupingSeparator);
+            }
+        };
+    }
+
+    /**
+     * Creates an empty column of categories, such as statuses or regions, whose values are added one row at a time.
+     * See {@link Categories}.
+     *
+     * @param header The header of the column.
+     * @return A new, empty Categories column.
+     */
+    public static Categories ofCategories(String header) {
+        return new Categories(header);
+    }
+
+    /**
+     * Creates a column of categories, such as statuses or regions, from the given values.
+     * Once the column is created, it no longer refers to the values array. See {@link Categories}.
+     *
+     * @param header The header of the column.
+     * @param values The values of the column, one for each row.
+     * @return A new Categories column.
+     */
+    public static Categories ofCategories(String header, String[] values) {
+        checkValues(values);
+        Categories categories = new Categories(header);
+        for (String value : values) {
+            categories.add(value);
+        }
+        return categories;
+    }
+
+    private static void checkValues(Object values) {
+        if (values == null)
+            throw new IllegalArgumentException("The column values array is null.");
+    }
+
+    /**
+     * Separates each group of three digits in the whole part of numbers with the given character, such as ','.
+     * Has no effect on columns of text.
+     *
+     * @param groupingSeparator The separator to use, or 0 for none. By default, there is none.
+     * @return This TableColumn instance.
+     */
+    public TableColumn withGroupingSeparator(char groupingSeparator) {
+        this.groupingSeparator = groupingSeparator;
+        return this;
+    }
+
+    /**
+     * @return The header of the column.
+     */
+    String getHeader() {
+        return header;
+    }
+
+    /**
+     * @return The number of values in the column.
+     */
+    abstract int size();
+
+    /**
+     * Reads a value of the column.
+     *
+     * @param row  The index of the value.
+     * @param cell A cell which numbers can be formatted into.
+     * @return The value, which may be the given cell, or null if the value is null.
+     */
+    abstract CharSequence read(int row, NumberCell cell);
+
+    /**
+     * A column of text with few distinct values compared to its number of rows, such as statuses, regions or hosts.
+     * <p>
+     * Each distinct value is kept only once, and each row holds just the code of its value: a single byte while
+     * there are fewer than 256 distinct values, two bytes while there are fewer than 65536, and four bytes after that.
+     * Each distinct value is measured once, and padded once for the width and alignment of its column,
+     * so rendering a row copies its values rather than measuring and padding each one again.
+     * <p>
+     * Values may be added until the column is given to a table, after which it must not change.
+     */
+    public static final class Categories extends TableColumn {
+
+        /**
+         * The code of each distinct value. Code 0 is reserved for null, so the first value is code 1.
+         */
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        /**
+         * The distinct values, where the value of code <code>n</code> is at index <code>n - 1</code>.
+         */
+        private final List<DictionaryValue> values = new ArrayList<>();
+
+        /**
+         * The code of each row, in the narrowest of these arrays that can hold every code. The others are null.
+         */
+        private byte[] byteCodes = new byte[16];
+        private short[] shortCodes;
+        private int[] intCodes;
+
+        /**
+         * The number of rows in the column.
+         */
+        private int size;
+
+        private Categories(String header) {
+            super(header);
+        }
+
+        /**
+         * Adds a row to the end of the column.
+         *
+         * @param value The value of the row. Newlines are allowed, and null values are rendered as the table's null value.
+         * @return This Categories instance.
+         */
+        public Categories add(String value) {
+            int code = 0;
+            if (value != null) {
+                Integer existingCode = codes.get(value);
+                if (existingCode == null) {
+                    values.add(new DictionaryValue(value));
+                    code = values.size();
+                    codes.put(value, code);
+                } else {
+                    code = existingCode;
+                }
+            }
+
+            if (byteCodes != null) {
+                if (code <= 0xFF) {
+                    if (size == byteCodes.length)
+                        byteCodes = Arrays.copyOf(byteCodes, size * 2);
+                    byteCodes[size++] = (byte) code;
+                    return this;
+                }
+
+                // Too many distinct values for a byte.
+                shortCodes = new short[byteCodes.length];
+                for (int row = 0; row < size; row++) {
+                    shortCodes[row] = (short) (byteCodes[row] & 0xFF);
+                }
+                byteCodes = null;
+            }
+
+            if (shortCodes != null) {
+                if (code <= 0xFFFF) {
+                    if (size == shortCodes.length)
+                        shortCodes = Arrays.copyOf(shortCodes, size * 2);
+                    shortCodes[size++] = (short) code;
+                    return this;
+                }
+
+                // Too many distinct values for a short.
+                intCodes = new int[shortCodes.length];
+                for (int row = 0; row < size; row++) {
+                    intCodes[row] = shortCodes[row] & 0xFFFF;
+                }
+                shortCodes = null;
+            }
+
+            if (size == intCodes.length)
+                intCodes = Arrays.copyOf(intCodes, size * 2);
+            intCodes[size++] = code;
+            return this;
+        }
+
+        /**
+         * @return The number of distinct values in the column, not counting null.
+         */
+        public int getDistinctValuesCount() {
+            return values.size();
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        CharSequence read(int row, NumberCell cell) {
+            int code;
+            if (byteCodes != null)
+                code = byteCodes[row] & 0xFF;
+            else if (shortCodes != null)
+                code = shortCodes[row] & 0xFFFF;
+            else
+                code = intCodes[row];
+
+            return code == 0 ? null : values.get(code - 1);
+        }
+
+    }
+
+}
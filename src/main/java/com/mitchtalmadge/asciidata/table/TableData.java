@@ -0,0 +1,47 @@
+package com.mitchtalmadge.asciidata.table;
+
+/**
+ * The data of a table; that is, every row below the headers.
+ * Each row is read as an array of cells, one for each column. Null cells are rendered as the table's null value.
+ * <p>
+ * Rows are read through a {@link Reader}, which may reuse the cells it returns between reads,
+ * so each thread which reads the data needs a reader of its own.
+ * Data whose number of rows is not known ahead of time can only be read in order, from the first row to the last.
+ *
+ * @author MitchTalmadge
+ */
+abstract class TableData {
+
+    /**
+     * @return The number of rows in the data, or -1 if it is not known until every row has been read.
+     */
+    abstract int getRowsCount();
+
+    /**
+     * @return A new reader for the rows of the data.
+     */
+    abstract Reader newReader();
+
+    /**
+     * Reads the rows of a {@link TableData}.
+     */
+    static abstract class Reader {
+
+        /**
+         * Reads a row of the data.
+         *
+         * @param row The index of the row.
+         * @return The cells of the row, one for each column, or null if the data has no such row.
+         * These are only valid until the next row is read, and must not be modified.
+         */
+        abstract CharSequence[] readRow(int row);
+
+        /**
+         * Releases anything held by this reader once it is no longer needed.
+         */
+        void close() {
+        }
+
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.mitchtalmadge.asciidata.table;
+
+import com.mitchtalmadge.asciidata.table.formats.TableFormatAbstract;
+
+import java.util.Arrays;
+
+/**
+ * The characters of a {@link TableFormatAbstract}, compiled once for the column widths of a table.
+ * Every horizontal divider of the table is built here up front, so that rendering a divider is a single bulk copy
+ * rather than a call into the format for every character.
+ * <p>
+ * Instances are immutable, so they can be shared by every thread rendering the table.
+ *
+ * @author MitchTalmadge
+ */
+final class TableGlyphs {
+
+    /**
+     * The format which these glyphs were compiled from.
+     */
+    final TableFormatAbstract format;
+
+    /**
+     * The widths of the columns which these glyphs were compiled for.
+     */
+    final int[] columnWidths;
+
+    /**
+     * The vertical border on the left and right edges of the table.
+     */
+    final char edgeVerticalFill;
+
+    /**
+     * The vertical border between columns.
+     */
+    final char innerVerticalFill;
+
+    /**
+     * The character which replaces the last visible character of a truncated line.
+     */
+    final char ellipsis;
+
+    /**
+     * The divider at the top of the table, above the headers.
+     */
+    final char[] topDivider;
+
+    /**
+     * The divider between the headers and the first row.
+     */
+    final char[] headersDivider;
+
+    /**
+     * The divider between two rows.
+     */
+    final char[] rowsDivider;
+
+    /**
+     * The divider at the bottom of the table, below the last row.
+     */
+    final char[] bottomDivider;
+
+    /**
+     * The divider between the headers and the empty message, when the table has no data.
+     */
+    final char[] emptyHeadersDivider;
+
+    /**
+     * The divider at the bottom of the table, below the empty message.
+     */
+    final char[] emptyBottomDivider;
+
+    private TableGlyphs(TableFormatAbstract format, int[] columnWidths) {
+        this.format = format;
+        this.columnWidths = columnWidths.clone();
+        this.edgeVerticalFill = format.getVerticalBorderFill(true);
+        this.innerVerticalFill = format.getVerticalBorderFill(false);
+        this.ellipsis = format.getEllipsis();
+
+        this.topDivider = compileDivider(columnWidths,
+                format.getTopLeftCorner(),
+                format.getHorizontalBorderFill(true, false),
+                format.getTopEdgeBorderDivider(),
+                format.getTopRightCorner());
+        this.headersDivider = compileDivider(columnWidths,
+                format.getLeftEdgeBorderDivider(true),
+                format.getHorizontalBorderFill(false, true),
+                format.getCross(true, false),
+                format.getRightEdgeBorderDivider(true));
+        this.rowsDivider = compileDivider(columnWidths,
+                format.getLeftEdgeBorderDivider(false),
+                format.getHorizontalBorderFill(false, false),
+                format.getCross(false, false),
+                format.getRightEdgeBorderDivider(false));
+        this.bottomDivider = compileDivider(columnWidths,
+                format.getBottomLeftCorner(),
+                format.getHorizontalBorderFill(true, false),
+                format.getBottomEdgeBorderDivider(),
+                format.getBottomRightCorner());
+        this.emptyHeadersDivider = compileDivider(columnWidths,
+                format.getLeftEdgeBorderDivider(true),
+                format.getHorizontalBorderFill(false, true),
+                format.getCross(true, true),
+                format.getRightEdgeBorderDivider(true));
+        this.emptyBottomDivider = compileDivider(columnWidths,
+                format.getBottomLeftCorner(),
+                format.getHorizontalBorderFill(true, false),
+                format.getHorizontalBorderFill(true, false),
+                format.getBottomRightCorner());
+    }
+
+    /**
+     * Compiles the given format for a table with the given column widths.
+     *
+     * @param format       The format of the table.
+     * @param columnWidths The width of each column of the table, excluding padding and borders.
+     * @return The compiled glyphs.
+     */
+    static TableGlyphs compile(TableFormatAbstract format, int[] columnWidths) {
+        return new TableGlyphs(format, columnWidths);
+    }
+
+    /**
+     * Determines if these glyphs can be used for a table with the given format and column widths.
+     *
+     * @param format       The format of the table.
+     * @param columnWidths The width of each column of the table.
+     * @return True if these glyphs were compiled from the same format, for the same widths.
+     */
+    boolean matches(TableFormatAbstract format, int[] columnWidths) {
+        return this.format == format && Arrays.equals(this.columnWidths, columnWidths);
+    }
+
+    /**
+     * Builds a horizontal divider, including its trailing newline, using the given characters.
+     * <p>
+     * Example output: (L = Left, F = Fill, M = Middle, R = Right)
+     * ╚════╧═══════╧════╧═══════╝
+     * LFFFMFFFFFFMFFFMFFFFFFR
+     *
+     * @param columnWidths The width of each column of the table, excluding padding and borders.
+     * @param left         The left border character.
+     * @param fill         The fill border character.
+     * @param middle       The middle border character.
+     * @param right        The right border character.
+     * @return The characters of the divider.
+     */
+    static char[] compileDivider(int[] columnWidths, char left, char fill, char middle, char right) {
+        int length = 2;
+        for (int columnWidth : columnWidths) {
+            length += columnWidth + 3;
+        }
+
+        char[] divider = new char[length];
+        int index = 0;
+
+        // For each column...
+        for (int column = 0; column < columnWidths.length; column++) {
+            // Either add the left or the middle borders, depending on the location of the column.
+            divider[index++] = column == 0 ? left : middle;
+
+            // Fill the contents of the column, plus the space on either side of it, with the fill border.
+            for (int i = 0; i < columnWidths[column] + 2; i++) {
+                divider[index++] = fill;
+            }
+        }
+
+        // Add the right border
+        divider[index++] = right;
+        divider[index] = '\n';
+        return divider;
+    }
+
+}
@@ -0,0 +1,499 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The measured layout of a table's cells: the width of each column, the height of each row,
+ * and where each line of a multi-line cell begins and ends.
+ * <p>
+ * The layout is computed in a single pass over the measured rows, so that rendering never has to split them again.
+ * Which rows are measured, and how wide the columns end up, is decided by a {@link WidthStrategy}.
+ * Rows which were not measured are laid out as they are rendered.
+ * Row 0 is the headers; row 1 onwards is the data.
+ * <p>
+ * Null cells are measured as the value they are rendered with. Since that value may change after the rows are measured,
+ * the layout remembers which columns and rows hold null cells so that they can be fit to a new value without measuring again.
+ *
+ * @author MitchTalmadge
+ */
+final class TableLayout {
+
+    /**
+     * The most rows that are measured by a single task when measuring in parallel.
+     */
+    private static final int PARALLEL_MEASURE_ROWS = 4096;
+
+    /**
+     * How many rows the layout initially has room for when the number of rows in the data is not known.
+     */
+    private static final int UNKNOWN_ROWS_CAPACITY = 1024;
+
+    /**
+     * The width of each column.
+     */
+    final int[] columnWidths;
+
+    /**
+     * What happens to lines which are wider than their column.
+     */
+    final Overflow overflow;
+
+    /**
+     * Decides the width of each column from what was measured.
+     */
+    private WidthStrategy widthStrategy;
+
+    /**
+     * The widest line measured in each column, not counting null cells.
+     */
+    private final int[] measuredWidths;
+
+    /**
+     * Whether each column holds any null cells among the measured rows.
+     */
+    private final boolean[] nullColumns;
+
+    /**
+     * The number of lines in the value that null cells are rendered with.
+     */
+    private int nullValueHeight = 1;
+
+    /**
+     * The number of rows which were measured, including the headers.
+     */
+    private int measuredRowsCount;
+
+    /**
+     * The number of lines in each measured row, not counting null cells.
+     */
+    private int[] rowHeights;
+
+    /**
+     * Whether each measured row holds any null cells.
+     */
+    private boolean[] nullRows;
+
+    /**
+     * The line bounds of each multi-line cell in the measured rows, in the format [row][column].
+     * Rows without any multi-line cells are null, as are single-line cells within multi-line rows.
+     *
+     * @see TableLayout#scanLines(CharSequence)
+     */
+    private int[][][] lineBounds;
+
+    private TableLayout(int columnsCount, int rowsCapacity, Overflow overflow) {
+        this.columnWidths = new int[columnsCount];
+        this.overflow = overflow;
+        this.measuredWidths = new int[columnsCount];
+        this.nullColumns = new boolean[columnsCount];
+        this.rowHeights = new int[rowsCapacity];
+        this.nullRows = new boolean[rowsCapacity];
+        this.lineBounds = new int[rowsCapacity][][];
+    }
+
+    /**
+     * Measures the layout of the given headers and data.
+     *
+     * @param headers       The headers of the table.
+     * @param data          The data of the table.
+     * @param widthStrategy Determines which rows are measured, and how wide the columns will be.
+     * @param pool          The pool to measure the rows on in parallel, or null to measure them on the calling thread.
+     *                      Data whose number of rows is not known is always measured on the calling thread.
+     * @return The layout of the table.
+     */
+    static TableLayout measure(String[] headers, TableData data, WidthStrategy widthStrategy, ForkJoinPool pool) {
+        return measure(headers, data, widthStrategy, pool, null);
+    }
+
+    /**
+     * Measures the layout of the given headers and data, reusing the arrays of a previous layout when possible.
+     *
+     * @param headers        The headers of the table.
+     * @param data           The data of the table.
+     * @param widthStrategy  Determines which rows are measured, and how wide the columns will be.
+     * @param pool           The pool to measure the rows on in parallel, or null to measure them on the calling thread.
+     *                       Data whose number of rows is not known is always measured on the calling thread.
+     * @param reusableLayout A layout which is no longer needed, whose arrays may be reused by this layout, or null.
+     * @return The layout of the table, which may be the reusable layout.
+     */
+    static TableLayout measure(String[] headers, TableData data, WidthStrategy widthStrategy, ForkJoinPool pool, TableLayout reusableLayout) {
+        int columnsCount = headers.length;
+        int rowsCount = data.getRowsCount();
+        int sampleRows = widthStrategy.getSampleRows();
+
+        // Measure each row, finding the widest line in each column.
+        TableLayout layout;
+        if (pool != null && rowsCount >= 0 && Math.min(rowsCount, sampleRows) > PARALLEL_MEASURE_ROWS) {
+            layout = new TableLayout(columnsCount, 1 + Math.min(rowsCount, sampleRows), widthStrategy.getOverflow());
+            layout.measuredRowsCount = layout.rowHeights.length;
+            layout.measureRow(0, headers, layout.measuredWidths);
+
+            int[] dataWidths = pool.invoke(layout.new MeasureTask(data, 1, layout.measuredRowsCount));
+            for (int column = 0; column < columnsCount; column++) {
+                layout.measuredWidths[column] = Math.max(layout.measuredWidths[column], dataWidths[column]);
+            }
+        } else {
+            // The number of rows may not be known ahead of time, in which case the layout grows as rows are measured.
+            int expectedRows = rowsCount < 0 ? UNKNOWN_ROWS_CAPACITY : rowsCount;
+            if (reusableLayout != null && reusableLayout.columnWidths.length == columnsCount && reusableLayout.overflow == widthStrategy.getOverflow()) {
+                layout = reusableLayout;
+                layout.reset(1 + Math.min(expectedRows, sampleRows));
+            } else {
+                layout = new TableLayout(columnsCount, 1 + Math.min(expectedRows, sampleRows), widthStrategy.getOverflow());
+            }
+            layout.measureRow(0, headers, layout.measuredWidths);
+            layout.measuredRowsCount = 1;
+
+            TableData.Reader reader = data.newReader();
+            try {
+                for (int row = 0; row < sampleRows; row++) {
+                    CharSequence[] cells = reader.readRow(row);
+                    if (cells == null)
+                        break;
+
+                    layout.ensureRowsCapacity(row + 2);
+                    layout.measureRow(row + 1, cells, layout.measuredWidths);
+                    layout.measuredRowsCount++;
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        // Let the strategy decide the final widths from what was measured, with null cells rendered as empty until told otherwise.
+        widthStrategy.addPremeasured(layout.measuredWidths, layout.nullColumns);
+        layout.widthStrategy = widthStrategy;
+        layout.fitNullValue("", null);
+
+        return layout;
+    }
+
+    /**
+     * Fits the columns and rows which hold null cells to the value that null cells are rendered with,
+     * then lets the width strategy decide the final width of each column.
+     *
+     * @param nullValue           The value that null cells are rendered with.
+     * @param nullValueLineBounds The line bounds of the null value, or null if it is a single line.
+     */
+    void fitNullValue(CharSequence nullValue, int[] nullValueLineBounds) {
+        int nullValueWidth = measureWidth(nullValue, nullValueLineBounds);
+        nullValueHeight = nullValueLineBounds == null ? 1 : nullValueLineBounds.length / 2;
+
+        for (int column = 0; column < columnWidths.length; column++) {
+            int measuredWidth = measuredWidths[column];
+            if (nullColumns[column])
+                measuredWidth = Math.max(measuredWidth, nullValueWidth);
+            columnWidths[column] = widthStrategy.getColumnWidth(column, measuredWidth);
+        }
+    }
+
+    /**
+     * Clears everything that was measured, so that the layout can be measured again.
+     *
+     * @param rowsCapacity The number of rows that the layout should have room for, including the headers.
+     */
+    private void reset(int rowsCapacity) {
+        Arrays.fill(columnWidths, 0);
+        Arrays.fill(measuredWidths, 0);
+        Arrays.fill(nullColumns, false);
+        Arrays.fill(rowHeights, 0, measuredRowsCount, 0);
+        Arrays.fill(nullRows, 0, measuredRowsCount, false);
+        Arrays.fill(lineBounds, 0, measuredRowsCount, null);
+        measuredRowsCount = 0;
+        ensureRowsCapacity(rowsCapacity);
+    }
+
+    /**
+     * Makes sure that the layout has room to store the given number of measured rows.
+     *
+     * @param rowsCapacity The number of rows needed, including the headers.
+     */
+    private void ensureRowsCapacity(int rowsCapacity) {
+        if (rowHeights.length >= rowsCapacity)
+            return;
+
+        int newCapacity = Math.max(rowsCapacity, rowHeights.length * 2);
+        rowHeights = Arrays.copyOf(rowHeights, newCapacity);
+        nullRows = Arrays.copyOf(nullRows, newCapacity);
+        lineBounds = Arrays.copyOf(lineBounds, newCapacity);
+    }
+
+    /**
+     * Measures a single row, storing its height and line bounds in this layout.
+     *
+     * @param row    The row, where 0 is the headers.
+     * @param cells  The cells of the row.
+     * @param widths The widest line found so far in each column, which will be updated with this row.
+     */
+    private void measureRow(int row, CharSequence[] cells, int[] widths) {
+        for (int column = 0; column < widths.length; column++) {
+            CharSequence cell = cells[column];
+            if (cell == null) {
+                // Measured as the null value once it is known; see fitNullValue.
+                nullColumns[column] = true;
+                nullRows[row] = true;
+                continue;
+            }
+
+            if (cell instanceof Block) {
+                // Blocks know their own size, so they never need to be scanned.
+                Block block = (Block) cell;
+                widths[column] = Math.max(widths[column], block.getWidth());
+                rowHeights[row] = Math.max(rowHeights[row], block.getHeight());
+                continue;
+            }
+
+            int[] bounds = scanLines(cell);
+            if (bounds == null) {
+                // A single line; the most common case.
+                widths[column] = Math.max(widths[column], cell.length());
+                rowHeights[row] = Math.max(rowHeights[row], 1);
+            } else {
+                widths[column] = Math.max(widths[column], measureWidth(cell, bounds));
+                rowHeights[row] = Math.max(rowHeights[row], bounds.length / 2);
+
+                if (lineBounds[row] == null)
+                    lineBounds[row] = new int[widths.length][];
+                lineBounds[row][column] = bounds;
+            }
+        }
+    }
+
+    /**
+     * Measures a range of data rows by splitting it in half until it is small enough to measure directly,
+     * then combining the widths of each half.
+     * Each task stores the heights and line bounds of its own rows, so they never overlap.
+     */
+    private class MeasureTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TableData data;
+        private final int fromRow;
+        private final int toRow;
+
+        /**
+         * @param data    The data of the table.
+         * @param fromRow The first row to measure, where 1 is the first row of the data.
+         * @param toRow   The row after the last row to measure.
+         */
+        MeasureTask(TableData data, int fromRow, int toRow) {
+            this.data = data;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (toRow - fromRow <= PARALLEL_MEASURE_ROWS) {
+                int[] widths = new int[columnWidths.length];
+                TableData.Reader reader = data.newReader();
+                try {
+                    for (int row = fromRow; row < toRow; row++) {
+                        measureRow(row, reader.readRow(row - 1), widths);
+                    }
+                } finally {
+                    reader.close();
+                }
+                return widths;
+            }
+
+            int middleRow = (fromRow + toRow) >>> 1;
+            MeasureTask upperHalf = new MeasureTask(data, fromRow, middleRow);
+            upperHalf.fork();
+            int[] widths = new MeasureTask(data, middleRow, toRow).compute();
+
+            int[] upperWidths = upperHalf.join();
+            for (int column = 0; column < widths.length; column++) {
+                widths[column] = Math.max(widths[column], upperWidths[column]);
+            }
+            return widths;
+        }
+
+    }
+
+    /**
+     * Scans the given text for newlines, determining where each of its lines begins and ends.
+     * Lines are determined the same way as <code>text.split("\\n")</code>; that is, trailing empty lines are dropped.
+     *
+     * @param text The text to scan.
+     * @return Null if the text is a single line (contains no newlines). Otherwise, the bounds of each line,
+     * in the format [start0, end0, start1, end1, ...], where each end is exclusive.
+     */
+    static int[] scanLines(CharSequence text) {
+        // Values which repeat throughout the table were scanned once, when they were created.
+        if (text instanceof DictionaryValue)
+            return ((DictionaryValue) text).lineBounds;
+
+        int[] bounds = null;
+        int count = 0;
+
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) != '\n')
+                continue;
+
+            if (bounds == null)
+                bounds = new int[8];
+            else if (count == bounds.length)
+                bounds = Arrays.copyOf(bounds, count * 2);
+
+            bounds[count++] = start;
+            bounds[count++] = i;
+            start = i + 1;
+        }
+
+        // No newlines; a single line.
+        if (bounds == null)
+            return null;
+
+        // The last line, after the final newline.
+        if (count == bounds.length)
+            bounds = Arrays.copyOf(bounds, count + 2);
+        bounds[count++] = start;
+        bounds[count++] = length;
+
+        // Drop trailing empty lines.
+        while (count > 0 && bounds[count - 2] == bounds[count - 1])
+            count -= 2;
+
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * @param text   The text.
+     * @param bounds The line bounds of the text, or null if it is a single line.
+     * @return The width of the widest line of the text.
+     * @see TableLayout#scanLines(CharSequence)
+     */
+    static int measureWidth(CharSequence text, int[] bounds) {
+        if (bounds == null)
+            return text.length();
+
+        int width = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            width = Math.max(width, bounds[i + 1] - bounds[i]);
+        }
+        return width;
+    }
+
+    /**
+     * Wraps any lines of the given text which are wider than the given width onto multiple lines.
+     *
+     * @param text   The text.
+     * @param bounds The line bounds of the text, or null if it is a single line.
+     * @param width  The maximum width of a line. Must be at least 1.
+     * @return The given bounds if no lines needed to be wrapped; otherwise, the bounds of the wrapped lines.
+     * @see TableLayout#scanLines(CharSequence)
+     */
+    static int[] wrapLines(CharSequence text, int[] bounds, int width) {
+        int linesCount = bounds == null ? 1 : bounds.length / 2;
+
+        // Count the lines once wrapped, so that we can tell if anything needs to be done.
+        int wrappedLinesCount = 0;
+        for (int line = 0; line < linesCount; line++) {
+            int lineWidth = bounds == null ? text.length() : bounds[line * 2 + 1] - bounds[line * 2];
+            wrappedLinesCount += Math.max(1, (lineWidth + width - 1) / width);
+        }
+        if (wrappedLinesCount == linesCount)
+            return bounds;
+
+        int[] wrapped = new int[wrappedLinesCount * 2];
+        int count = 0;
+        for (int line = 0; line < linesCount; line++) {
+            int start = bounds == null ? 0 : bounds[line * 2];
+            int end = bounds == null ? text.length() : bounds[line * 2 + 1];
+            do {
+                wrapped[count++] = start;
+                start = Math.min(start + width, end);
+                wrapped[count++] = start;
+            } while (start < end);
+        }
+        return wrapped;
+    }
+
+    /**
+     * Lays out a single row for rendering, determining the line bounds of each of its cells.
+     * Measured rows reuse the bounds computed when the table was measured; other rows are scanned now.
+     *
+     * @param row                 The row, where 0 is the headers.
+     * @param cells               The cells of the row.
+     * @param nullValue           The value that null cells are rendered with.
+     * @param nullValueLineBounds The line bounds of the null value, or null if it is a single line.
+     * @param rowLineBounds       An array with an index for each column, which will be filled with the line bounds
+     *                            of each cell (null if the cell is a single line or a {@link Block}).
+     * @return The number of lines in the row.
+     */
+    int layoutRow(int row, CharSequence[] cells, String nullValue, int[] nullValueLineBounds, int[][] rowLineBounds) {
+        int rowHeight = 0;
+        for (int column = 0; column < columnWidths.length; column++) {
+            CharSequence cell = cells[column];
+            int[] bounds;
+            if (cell instanceof Block) {
+                // Blocks write their own lines, and are truncated rather than wrapped.
+                rowLineBounds[column] = null;
+                rowHeight = Math.max(rowHeight, ((Block) cell).getHeight());
+                continue;
+            } else if (cell == null) {
+                cell = nullValue;
+                bounds = nullValueLineBounds;
+            } else if (row < measuredRowsCount) {
+                bounds = lineBounds[row] == null ? null : lineBounds[row][column];
+            } else {
+                bounds = scanLines(cell);
+            }
+
+            // Columns with no width at all cannot be wrapped into, so they are truncated instead.
+            if (overflow == Overflow.WRAP && columnWidths[column] > 0)
+                bounds = wrapLines(cell, bounds, columnWidths[column]);
+
+            rowLineBounds[column] = bounds;
+            rowHeight = Math.max(rowHeight, bounds == null ? 1 : bounds.length / 2);
+        }
+        return rowHeight;
+    }
+
+    /**
+     * @return The number of rows that the layout has room for, including the headers.
+     */
+    int getRowsCapacity() {
+        return rowHeights.length;
+    }
+
+    /**
+     * @return The number of rows which were measured, including the headers.
+     */
+    int getMeasuredRowsCount() {
+        return measuredRowsCount;
+    }
+
+    /**
+     * @param row The row, where 0 is the headers.
+     * @return The number of lines in the row, not counting any wrapping.
+     * Rows which were not measured are assumed to be a single line.
+     */
+    int getRowHeight(int row) {
+        if (row >= measuredRowsCount)
+            return 1;
+
+        return nullRows[row] ? Math.max(rowHeights[row], nullValueHeight) : rowHeights[row];
+    }
+
+    /**
+     * @param row    The row, where 0 is the headers.
+     * @param column The column.
+     * @return The line bounds of the cell, or null if it is a single line or the row was not measured.
+     * @see TableLayout#scanLines(CharSequence)
+     */
+    int[] getLineBounds(int row, int column) {
+        if (row >= measuredRowsCount)
+            return null;
+
+        int[][] rowBounds = lineBounds[row];
+        return rowBounds == null ? null : rowBounds[column];
+    }
+
+}
@@ -0,0 +1,282 @@
+package com.mitchtalmadge.asciidata.table;
+
+import com.mitchtalmadge.asciidata.metrics.RenderListener;
+import com.mitchtalmadge.asciidata.table.formats.TableFormatAbstract;
+import com.mitchtalmadge.asciidata.table.formats.UTF8TableFormat;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The shape of a table (its headers, alignments, format, null value and width strategy) without any data,
+ * which can render any number of datasets into tables.
+ * <p>
+ * Templates are immutable: each of the <code>with</code> methods returns a new template, leaving the original unchanged.
+ * This makes a template safe to share between threads, such as by every request of a server which renders the same report.
+ * <p>
+ * Each thread which renders with a template keeps its own buffers and layout, which are reused by its next render,
+ * so rendering many tables from a template creates much less garbage than creating a new {@link ASCIITable} for each.
+ *
+ * @author MitchTalmadge
+ */
+public final class TableTemplate {
+
+    /**
+     * The largest buffer, in characters, that a thread will keep between renders.
+     * Buffers that grow larger than this to fit an unusually large table are dropped afterwards.
+     */
+    private static final int MAX_RETAINED_BUFFER_LENGTH = 1 << 20;
+
+    /**
+     * The most rows that a layout kept by a thread between renders may have room for.
+     * Layouts that grow larger than this to fit an unusually large table are dropped afterwards.
+     */
+    private static final int MAX_RETAINED_LAYOUT_ROWS = 1 << 16;
+
+    private final String[] headers;
+    private final Align[] aligns;
+    private final TableFormatAbstract tableFormat;
+    private final String nullValue;
+    private final WidthStrategy widthStrategy;
+    private final RenderListener listener;
+
+    /**
+     * The buffers and layout kept by each thread between renders.
+     */
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    private TableTemplate(String[] headers, Align[] aligns, TableFormatAbstract tableFormat, String nullValue,
+                          WidthStrategy widthStrategy, RenderListener listener) {
+        this.headers = headers;
+        this.aligns = aligns;
+        this.tableFormat = tableFormat;
+        this.nullValue = nullValue;
+        this.widthStrategy = widthStrategy;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates a new template for tables with the given headers.
+     * Every column is aligned to the left, and tables are rendered with the {@link UTF8TableFormat}.
+     *
+     * @param headers The headers of the tables. Each index is a new column, in order from left to right.
+     * @return A new TableTemplate instance.
+     */
+    public static TableTemplate fromHeaders(String... headers) {
+        if (headers == null)
+            throw new IllegalArgumentException("The table headers array is null.");
+        if (headers.length == 0)
+            throw new IllegalArgumentException("No headers were supplied.");
+
+        Align[] aligns = new Align[headers.length];
+        Arrays.fill(aligns, Align.LEFT);
+        return new TableTemplate(headers.clone(), aligns, new UTF8TableFormat(), "", WidthStrategy.exact(), null);
+    }
+
+    /**
+     * Changes the format of the tables (how they will be displayed; which characters to use) to the provided format.
+     * The format must not change once it is given to a template.
+     *
+     * @param tableFormat The format to use. By default, the template will already use {@link UTF8TableFormat}.
+     * @return A new TableTemplate instance with the given format.
+     */
+    public TableTemplate withTableFormat(TableFormatAbstract tableFormat) {
+        if (tableFormat == null)
+            throw new IllegalArgumentException("The table format is null.");
+
+        return new TableTemplate(headers, aligns, tableFormat, nullValue, widthStrategy, listener);
+    }
+
+    /**
+     * Changes the value used for rendering <code>null</code> data.
+     *
+     * @param nullValue The nullValue to use. By default, the template will use an empty string (<code>""</code>).
+     * @return A new TableTemplate instance with the given null value.
+     */
+    public TableTemplate withNullValue(String nullValue) {
+        if (nullValue == null)
+            throw new IllegalArgumentException("The null value is null.");
+
+        return new TableTemplate(headers, aligns, tableFormat, nullValue, widthStrategy, listener);
+    }
+
+    /**
+     * Changes how the widths of the columns are chosen for each dataset.
+     *
+     * @param widthStrategy The strategy to use. By default, the template will use {@link WidthStrategy#exact()}.
+     * @return A new TableTemplate instance with the given width strategy.
+     */
+    public TableTemplate withWidthStrategy(WidthStrategy widthStrategy) {
+        if (widthStrategy == null)
+            throw new IllegalArgumentException("The width strategy is null.");
+
+        return new TableTemplate(headers, aligns, tableFormat, nullValue, widthStrategy, listener);
+    }
+
+    /**
+     * Attaches a listener which receives the measurements of each table rendered from the template.
+     * The listener may be called by many threads at once.
+     *
+     * @param listener The listener to attach, or null to stop measuring.
+     * @return A new TableTemplate instance with the given listener.
+     */
+    public TableTemplate withRenderListener(RenderListener listener) {
+        return new TableTemplate(headers, aligns, tableFormat, nullValue, widthStrategy, listener);
+    }
+
+    /**
+     * Changes the alignment of the data in a column. Headers are always aligned to the left.
+     *
+     * @param column The index of the column.
+     * @param align  The alignment of the column.
+     * @return A new TableTemplate instance with the given alignment.
+     */
+    public TableTemplate alignColumn(int column, Align align) {
+        if (column < 0 || column >= headers.length)
+            throw new IllegalArgumentException("There is no column " + column + ".");
+        if (align == null)
+            throw new IllegalArgumentException("The alignment is null.");
+
+        Align[] aligns = this.aligns.clone();
+        aligns[column] = align;
+        return new TableTemplate(headers, aligns, tableFormat, nullValue, widthStrategy, listener);
+    }
+
+    /**
+     * Renders the given data into a table.
+     *
+     * @param data The data of the table, in the format CharSequence[row][column]. Newlines are allowed.
+     * @return The string representation of the table.
+     * @throws IllegalArgumentException If any row does not have the same number of columns as there are headers.
+     */
+    public String render(CharSequence[][] data) {
+        Workspace workspace = acquireWorkspace();
+        try {
+            workspace.buffer.setLength(0);
+            createTable(data, workspace).renderWith(workspace.buffer, null);
+            return workspace.buffer.toString();
+        } catch (IOException e) {
+            // Nothing is written anywhere but the StringBuilder, so this cannot happen.
+            throw new IllegalStateException(e);
+        } finally {
+            releaseWorkspace(workspace);
+        }
+    }
+
+    /**
+     * Renders the given data into a table, written to the given output one row at a time.
+     * The output is identical to that of {@link TableTemplate#render(CharSequence[][])}.
+     *
+     * @param data   The data of the table, in the format CharSequence[row][column]. Newlines are allowed.
+     * @param output The output to render to, such as a {@link java.io.Writer} or {@link StringBuilder}.
+     * @throws IOException              If the output could not be written to.
+     * @throws IllegalArgumentException If any row does not have the same number of columns as there are headers.
+     */
+    public void renderTo(CharSequence[][] data, Appendable output) throws IOException {
+        if (output == null)
+            throw new IllegalArgumentException("The output is null.");
+
+        Workspace workspace = acquireWorkspace();
+        try {
+            workspace.buffer.setLength(0);
+            createTable(data, workspace).renderWith(workspace.buffer, output);
+        } finally {
+            releaseWorkspace(workspace);
+        }
+    }
+
+    /**
+     * Creates a table of the given data in the shape of this template,
+     * reusing the layout and glyphs of the previous table rendered by the workspace.
+     *
+     * @param data      The data of the table.
+     * @param workspace The workspace of the current thread.
+     * @return The table, ready to be rendered.
+     */
+    private ASCIITable createTable(CharSequence[][] data, Workspace workspace) {
+        if (data == null)
+            data = new CharSequence[0][0];
+
+        ASCIITable table = new ASCIITable(headers, new ArrayTableData(data, headers.length), widthStrategy, null, workspace.layout)
+                .withTableFormat(tableFormat)
+                .withNullValue(nullValue)
+                .withRenderListener(listener);
+        for (int column = 0; column < aligns.length; column++) {
+            if (aligns[column] != Align.LEFT)
+                table.alignColumn(column, aligns[column]);
+        }
+
+        // Borrow the layout right away, so that a failed render does not leave it half-used.
+        workspace.layout = null;
+        workspace.table = table;
+        table.reuseGlyphs(workspace.glyphs);
+        return table;
+    }
+
+    /**
+     * @return The workspace of the current thread, or a new workspace if the current thread's is already in use,
+     * such as by a render listener which renders from the same template.
+     */
+    private Workspace acquireWorkspace() {
+        Workspace workspace = workspaces.get();
+        if (workspace.inUse)
+            return new Workspace();
+
+        workspace.inUse = true;
+        return workspace;
+    }
+
+    /**
+     * Keeps what the last table created so that the next render on this thread can reuse it.
+     *
+     * @param workspace The workspace to release.
+     */
+    private void releaseWorkspace(Workspace workspace) {
+        ASCIITable table = workspace.table;
+        if (table != null) {
+            workspace.layout = table.getLayout();
+            workspace.glyphs = table.getGlyphs();
+            workspace.table = null;
+        }
+
+        if (workspace.buffer.capacity() > MAX_RETAINED_BUFFER_LENGTH)
+            workspace.buffer = new StringBuilder();
+        if (workspace.layout != null && workspace.layout.getRowsCapacity() > MAX_RETAINED_LAYOUT_ROWS)
+            workspace.layout = null;
+
+        workspace.inUse = false;
+    }
+
+    /**
+     * The buffers and layout that a thread reuses between renders.
+     */
+    private static final class Workspace {
+
+        /**
+         * The buffer which tables are rendered into.
+         */
+        private StringBuilder buffer = new StringBuilder();
+
+        /**
+         * The layout of the last table, whose arrays are reused by the next.
+         */
+        private TableLayout layout;
+
+        /**
+         * The glyphs of the last table, which are reused by the next if its columns are the same widths.
+         */
+        private TableGlyphs glyphs;
+
+        /**
+         * The table currently being rendered, if any.
+         */
+        private ASCIITable table;
+
+        /**
+         * True while a render is using this workspace.
+         */
+        private boolean inUse;
+
+    }
+
+}
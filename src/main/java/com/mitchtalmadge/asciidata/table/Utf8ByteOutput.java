@@ -0,0 +1,231 @@
+package com.mitchtalmadge.asciidata.table;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An output which encodes the characters appended to it as UTF-8 directly into a {@link ByteBuffer},
+ * draining the buffer to a channel whenever it fills up.
+ * <p>
+ * ASCII characters, which make up all of a table in the {@link com.mitchtalmadge.asciidata.table.formats.ASCIITableFormat},
+ * are written as single bytes. The box-drawing characters used by the
+ * {@link com.mitchtalmadge.asciidata.table.formats.UTF8TableFormat} are copied from pre-encoded 3-byte sequences.
+ * Malformed surrogates are replaced by '?', the same as {@link String#getBytes(java.nio.charset.Charset)}.
+ *
+ * @author MitchTalmadge
+ */
+final class Utf8ByteOutput implements Appendable {
+
+    /**
+     * The first character of the Unicode box-drawing block.
+     */
+    private static final char BOX_DRAWING_START = '─';
+
+    /**
+     * The character after the last character of the Unicode box-drawing block.
+     */
+    private static final char BOX_DRAWING_END = '▀';
+
+    /**
+     * The UTF-8 encoding of each character in the box-drawing block, three bytes per character.
+     */
+    private static final byte[] BOX_DRAWING_BYTES = new byte[(BOX_DRAWING_END - BOX_DRAWING_START) * 3];
+
+    static {
+        for (char c = BOX_DRAWING_START; c < BOX_DRAWING_END; c++) {
+            int index = (c - BOX_DRAWING_START) * 3;
+            BOX_DRAWING_BYTES[index] = (byte) (0xE0 | (c >> 12));
+            BOX_DRAWING_BYTES[index + 1] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            BOX_DRAWING_BYTES[index + 2] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+
+    /**
+     * A high surrogate which was appended on its own, waiting for the low surrogate that completes it.
+     */
+    private char pendingHighSurrogate;
+
+    /**
+     * The number of bytes drained to the channel so far.
+     */
+    private long drainedBytes;
+
+    /**
+     * The position of the buffer when it was first written to or last drained.
+     */
+    private int startPosition;
+
+    /**
+     * @param buffer  The buffer to encode into, starting at its position.
+     * @param channel The channel to drain the buffer to when it fills up,
+     *                or null to throw a {@link BufferOverflowException} instead.
+     */
+    Utf8ByteOutput(ByteBuffer buffer, WritableByteChannel channel) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.startPosition = buffer.position();
+    }
+
+    @Override
+    public Utf8ByteOutput append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Utf8ByteOutput append(CharSequence csq, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            if (c < 0x80 && pendingHighSurrogate == 0) {
+                if (!buffer.hasRemaining())
+                    drain();
+                buffer.put((byte) c);
+            } else {
+                encode(c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Utf8ByteOutput append(char c) throws IOException {
+        encode(c);
+        return this;
+    }
+
+    /**
+     * Counts the bytes that the given text is encoded into, without encoding it.
+     * Malformed surrogates are counted as the single '?' that they are replaced by.
+     *
+     * @param text The text, which must not end in the middle of a surrogate pair.
+     * @return The number of bytes in the UTF-8 encoding of the text.
+     */
+    static long encodedLength(CharSequence text) {
+        long length = 0;
+        int count = text.length();
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes a single character into the buffer.
+     *
+     * @param c The character to encode.
+     * @throws IOException If the buffer had to be drained and the channel could not be written to.
+     */
+    private void encode(char c) throws IOException {
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensureRemaining(4);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)))
+                        .put((byte) (0x80 | ((codePoint >> 12) & 0x3F)))
+                        .put((byte) (0x80 | ((codePoint >> 6) & 0x3F)))
+                        .put((byte) (0x80 | (codePoint & 0x3F)));
+                return;
+            }
+
+            // The high surrogate was never completed.
+            ensureRemaining(1);
+            buffer.put((byte) '?');
+        }
+
+        if (c < 0x80) {
+            ensureRemaining(1);
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            ensureRemaining(2);
+            buffer.put((byte) (0xC0 | (c >> 6)))
+                    .put((byte) (0x80 | (c & 0x3F)));
+        } else if (c >= BOX_DRAWING_START && c < BOX_DRAWING_END) {
+            ensureRemaining(3);
+            buffer.put(BOX_DRAWING_BYTES, (c - BOX_DRAWING_START) * 3, 3);
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensureRemaining(1);
+            buffer.put((byte) '?');
+        } else {
+            ensureRemaining(3);
+            buffer.put((byte) (0xE0 | (c >> 12)))
+                    .put((byte) (0x80 | ((c >> 6) & 0x3F)))
+                    .put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    /**
+     * Makes sure that the buffer has room for the given number of bytes, draining it if it does not.
+     *
+     * @param bytes The number of bytes needed.
+     * @throws IOException If the channel could not be written to.
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes)
+            drain();
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel, leaving the buffer empty.
+     *
+     * @throws IOException             If the channel could not be written to.
+     * @throws BufferOverflowException If there is no channel to drain to.
+     */
+    private void drain() throws IOException {
+        if (channel == null)
+            throw new BufferOverflowException();
+
+        drainedBytes += buffer.position() - startPosition;
+        // Called through Buffer, since ByteBuffer only overrides these as of Java 9.
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+        startPosition = 0;
+    }
+
+    /**
+     * @return The number of bytes encoded so far, whether drained to the channel or still in the buffer.
+     */
+    long getBytesWritten() {
+        return drainedBytes + buffer.position() - startPosition;
+    }
+
+    /**
+     * Completes the output, replacing any unfinished surrogate pair and draining the buffer to the channel, if any.
+     *
+     * @throws IOException If the channel could not be written to.
+     */
+    void finish() throws IOException {
+        if (pendingHighSurrogate != 0) {
+            ensureRemaining(1);
+            pendingHighSurrogate = 0;
+            buffer.put((byte) '?');
+        }
+
+        if (channel != null)
+            drain();
+    }
+
+}
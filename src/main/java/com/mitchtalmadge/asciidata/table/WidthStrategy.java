@@ -0,0 +1,176 @@
+package com.mitchtalmadge.asciidata.table;
+
+/**
+ * Determines how the widths of an {@link ASCIITable}'s columns are chosen.
+ * <p>
+ * By default, every row of the table is measured so that each column is exactly as wide as its widest line.
+ * For very large tables, other strategies can avoid measuring every row, or keep a single enormous cell from
+ * making its whole column enormous. Lines which do not fit within their column are handled by an {@link Overflow}.
+ *
+ * @author MitchTalmadge
+ */
+public final class WidthStrategy {
+
+    private static final WidthStrategy EXACT = new WidthStrategy(Integer.MAX_VALUE, null, Integer.MAX_VALUE, Overflow.TRUNCATE, null, null);
+
+    /**
+     * The number of data rows to measure. The headers are always measured.
+     */
+    private final int sampleRows;
+
+    /**
+     * The width of each column, or null if the widths are measured.
+     */
+    private final int[] fixedWidths;
+
+    /**
+     * The maximum width of any column.
+     */
+    private final int maxWidth;
+
+    /**
+     * What happens to lines which are wider than their column.
+     */
+    private final Overflow overflow;
+
+    /**
+     * The widest line of each column which was measured before the table was created, or null if nothing was.
+     */
+    private final int[] premeasuredWidths;
+
+    /**
+     * Whether each column was found to hold null cells before the table was created, or null if nothing was measured.
+     */
+    private final boolean[] premeasuredNullColumns;
+
+    private WidthStrategy(int sampleRows, int[] fixedWidths, int maxWidth, Overflow overflow,
+                          int[] premeasuredWidths, boolean[] premeasuredNullColumns) {
+        if (overflow == null)
+            throw new IllegalArgumentException("The overflow is null.");
+
+        this.sampleRows = sampleRows;
+        this.fixedWidths = fixedWidths;
+        this.maxWidth = maxWidth;
+        this.overflow = overflow;
+        this.premeasuredWidths = premeasuredWidths;
+        this.premeasuredNullColumns = premeasuredNullColumns;
+    }
+
+    /**
+     * Measures every row of the table, so that each column is exactly as wide as its widest line.
+     * Nothing will ever overflow. This is the default.
+     *
+     * @return The exact width strategy.
+     */
+    public static WidthStrategy exact() {
+        return EXACT;
+    }
+
+    /**
+     * Measures only the headers and the first rows of the table.
+     * Rows after these are not measured at all, so rendering can begin without reading the rest of the table.
+     *
+     * @param sampleRows The number of data rows to measure.
+     * @param overflow   What happens to lines in the remaining rows which are wider than their column.
+     * @return The sampled width strategy.
+     */
+    public static WidthStrategy sampled(int sampleRows, Overflow overflow) {
+        if (sampleRows < 0)
+            throw new IllegalArgumentException("The number of sample rows cannot be negative.");
+
+        return new WidthStrategy(sampleRows, null, Integer.MAX_VALUE, overflow, null, null);
+    }
+
+    /**
+     * Uses the given width for each column. Nothing is measured.
+     *
+     * @param overflow    What happens to lines which are wider than their column.
+     * @param fixedWidths The width of each column, in order from left to right. There must be one for each header.
+     * @return The fixed width strategy.
+     */
+    public static WidthStrategy fixed(Overflow overflow, int... fixedWidths) {
+        if (fixedWidths == null || fixedWidths.length == 0)
+            throw new IllegalArgumentException("No widths were supplied.");
+        for (int width : fixedWidths) {
+            if (width < 1)
+                throw new IllegalArgumentException("Column widths must be at least 1.");
+        }
+
+        return new WidthStrategy(0, fixedWidths.clone(), Integer.MAX_VALUE, overflow, null, null);
+    }
+
+    /**
+     * Measures every row of the table like {@link WidthStrategy#exact()}, but limits every column to a maximum width.
+     *
+     * @param maxWidth The maximum width of any column.
+     * @param overflow What happens to lines which are wider than the maximum width.
+     * @return The capped width strategy.
+     */
+    public static WidthStrategy capped(int maxWidth, Overflow overflow) {
+        if (maxWidth < 1)
+            throw new IllegalArgumentException("The maximum width must be at least 1.");
+
+        return new WidthStrategy(Integer.MAX_VALUE, null, maxWidth, overflow, null, null);
+    }
+
+    /**
+     * Uses widths which were already measured exactly, such as while the rows of {@link OffHeapRows} were added.
+     * Nothing is measured, and nothing will overflow.
+     *
+     * @param widths      The width of the widest line of each column, including the headers, not counting null cells.
+     * @param nullColumns Whether each column holds any null cells, which are as wide as the table's null value.
+     * @return The premeasured width strategy.
+     */
+    static WidthStrategy premeasured(int[] widths, boolean[] nullColumns) {
+        return new WidthStrategy(0, null, Integer.MAX_VALUE, Overflow.TRUNCATE, widths, nullColumns);
+    }
+
+    /**
+     * @return The number of data rows to measure. The headers are always measured.
+     */
+    int getSampleRows() {
+        return sampleRows;
+    }
+
+    /**
+     * Adds what was measured before the table was created, if anything, to what was measured from its rows.
+     *
+     * @param measuredWidths The widest line measured in each column, which will be widened to any premeasured width.
+     * @param nullColumns    Whether each column holds any null cells, which will be set for any premeasured null cells.
+     */
+    void addPremeasured(int[] measuredWidths, boolean[] nullColumns) {
+        if (premeasuredWidths == null)
+            return;
+
+        for (int column = 0; column < measuredWidths.length; column++) {
+            measuredWidths[column] = Math.max(measuredWidths[column], premeasuredWidths[column]);
+            nullColumns[column] |= premeasuredNullColumns[column];
+        }
+    }
+
+    /**
+     * Determines the final width of a column.
+     *
+     * @param column        The column.
+     * @param measuredWidth The width of the widest line measured in the column.
+     * @return The width that the column should be rendered with.
+     * @throws IllegalArgumentException If the widths are fixed, and there is no width for the column.
+     */
+    int getColumnWidth(int column, int measuredWidth) {
+        if (fixedWidths != null) {
+            if (column >= fixedWidths.length)
+                throw new IllegalArgumentException("No fixed width was supplied for column " + column + ".");
+            return fixedWidths[column];
+        }
+
+        return Math.min(measuredWidth, maxWidth);
+    }
+
+    /**
+     * @return What happens to lines which are wider than their column.
+     */
+    Overflow getOverflow() {
+        return overflow;
+    }
+
+}
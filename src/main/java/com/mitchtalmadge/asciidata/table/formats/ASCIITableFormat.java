@@ -68,4 +68,9 @@ public class ASCIITableFormat extends TableFormatAbstract {
         else
             return '|';
     }
+
+    @Override
+    public char getEllipsis() {
+        return '~';
+    }
 }
@@ -81,4 +81,14 @@ public abstract class TableFormatAbstract {
      */
     public abstract char getCross(boolean underHeaders, boolean emptyData);
 
+    // ============ Overflow
+
+    /**
+     * @return The character which replaces the last visible character of a line that was too wide for its column,
+     * when the table's {@link com.mitchtalmadge.asciidata.table.Overflow} calls for one. Ex: …
+     */
+    public char getEllipsis() {
+        return '…';
+    }
+
 }
@@ -1,9 +1,13 @@
 package com.mitchtalmadge.asciidata.graph;
 
 import com.mitchtalmadge.asciidata.TestUtils;
+import com.mitchtalmadge.asciidata.metrics.RenderMetrics;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 
@@ -48,4 +52,173 @@ public class ASCIIGraphTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testTargetWidth() {
+        double[] series = new double[10000];
+        for (int i = 0; i < series.length; i++)
+            series[i] = 15 * Math.sin(i * ((Math.PI * 4) / series.length));
+        series[5000] = 40;
+
+        for (Downsampling downsampling : Downsampling.values()) {
+            String plot = ASCIIGraph.fromSeries(series).withNumRows(20).withTargetWidth(80, downsampling).plot();
+
+            assertEquals(ASCIIGraph.fromSeries(downsampling.downsample(series, 80)).withNumRows(20).plot(), plot);
+            // The spike is kept, so it is still the top of the graph.
+            assertEquals("   40.00", plot.substring(0, 8));
+            assertEquals(8 + 1 + 80 + 1, plot.indexOf('\n') + 1);
+        }
+    }
+
+    @Test
+    public void testTargetWidthWiderThanSeries() {
+        assertEquals(
+                ASCIIGraph.fromSeries(randomWaveSeries).plot(),
+                ASCIIGraph.fromSeries(randomWaveSeries).withTargetWidth(200, Downsampling.MIN_MAX).plot()
+        );
+    }
+
+    @Test
+    public void testMaxNumRows() {
+        // Latencies in nanoseconds, which would be billions of rows at one row per unit.
+        double[] series = new double[]{1_200_000, 950_000_000, 3_000_000_000.0, 40_000_000, 2_000_000};
+
+        String plot = ASCIIGraph.fromSeries(series).withTickWidth(14).withMaxNumRows(20).plot();
+        assertEquals(ASCIIGraph.fromSeries(series).withTickWidth(14).withNumRows(20).plot(), plot);
+
+        // Without a maximum, the rows are still limited by the grid.
+        String limited = ASCIIGraph.fromSeries(series).withMaxGridCells(1000).plot();
+        assertEquals(1000 / 15, limited.split("\n").length);
+    }
+
+    @Test
+    public void testMaxNumRowsAboveRange() {
+        assertEquals(
+                ASCIIGraph.fromSeries(randomWaveSeries).plot(),
+                ASCIIGraph.fromSeries(randomWaveSeries).withMaxNumRows(100).plot()
+        );
+    }
+
+    @Test
+    public void testSingleRow() {
+        assertEquals("    5.00 ┼──\n", ASCIIGraph.fromSeries(new double[]{1, 5, 3}).withMaxNumRows(1).plot());
+        assertEquals("    5.00 ┼──\n", ASCIIGraph.fromSeries(new double[]{1, 5, 3}).withMaxGridCells(20).plot());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNumRowsAboveMaxGridCells() {
+        ASCIIGraph.fromSeries(randomWaveSeries).withNumRows(50).withMaxGridCells(1000).plot();
+    }
+
+    @Test
+    public void testPlotTo() throws IOException {
+        List<ASCIIGraph> graphs = new ArrayList<>();
+        graphs.add(ASCIIGraph.fromSeries(sinWaveSeries));
+        graphs.add(ASCIIGraph.fromSeries(sinWaveSeries).withNumRows(15));
+        graphs.add(ASCIIGraph.fromSeries(randomWaveSeries));
+        graphs.add(ASCIIGraph.fromSeries(randomWaveSeries).withTargetWidth(30, Downsampling.MIN_MAX).withTickWidth(5));
+
+        for (ASCIIGraph graph : graphs) {
+            StringWriter output = new StringWriter();
+            graph.plotTo(output);
+            assertEquals(graph.plot(), output.toString());
+        }
+    }
+
+    @Test
+    public void testMultipleSeriesOverlap() {
+        double[] up = new double[]{0, 1, 2, 3, 4};
+        double[] down = new double[]{4, 3, 2, 1, 0};
+
+        assertEquals("4.00 ┼╮  ╭\n" +
+                        "3.00 ┤╰╮╭╯\n" +
+                        "2.00 ┤ ╰╮ \n" +
+                        "1.00 ┤╭╯╰╮\n" +
+                        "0.00 ┼╯  ╰\n",
+                ASCIIGraph.fromSeries(up, down).withTickWidth(4).plot());
+        assertEquals("4.00 ┼╮  ╭\n" +
+                        "3.00 ┤╰╮╭╯\n" +
+                        "2.00 ┤ ╭╯ \n" +
+                        "1.00 ┤╭╯╰╮\n" +
+                        "0.00 ┼╯  ╰\n",
+                ASCIIGraph.fromSeries(up, down).withTickWidth(4).withOverlap(Overlap.FIRST).plot());
+        assertEquals("4.00 ┼╮  ╭\n" +
+                        "3.00 ┤╰╮╭╯\n" +
+                        "2.00 ┤ ╳╳ \n" +
+                        "1.00 ┤╭╯╰╮\n" +
+                        "0.00 ┼╯  ╰\n",
+                ASCIIGraph.fromSeries(up, down).withTickWidth(4).withOverlap(Overlap.MARK).plot());
+        assertEquals("4.00 ┼o  *\n" +
+                        "3.00 ┤oo**\n" +
+                        "2.00 ┤ oo \n" +
+                        "1.00 ┤**oo\n" +
+                        "0.00 ┼*  o\n",
+                ASCIIGraph.fromSeries(up, down).withTickWidth(4).withSeriesGlyphs('*', 'o').plot());
+    }
+
+    @Test
+    public void testMultipleSeriesColors() throws IOException {
+        // The shorter series is scaled to the longer one, and only it is colored.
+        ASCIIGraph graph = ASCIIGraph.fromSeries(new double[]{1, 2}, new double[]{4, 3, 2, 1, 0})
+                .withTickWidth(4)
+                .withSeriesColors("\u001B[31m", null);
+
+        String plot = graph.plot();
+        assertEquals("4.00 ┼╮   \n" +
+                        "3.00 ┤╰╮  \n" +
+                        "2.00 ┤\u001B[31m╭\u001B[0m╰╮ \n" +
+                        "1.00 ┼\u001B[31m╯\u001B[0m ╰╮\n" +
+                        "0.00 ┼   ╰\n",
+                plot);
+
+        StringWriter output = new StringWriter();
+        graph.plotTo(output);
+        assertEquals(plot, output.toString());
+    }
+
+    @Test
+    public void testMultipleSeriesPlotTo() throws IOException {
+        double[] cosWaveSeries = new double[80];
+        for (int i = 0; i < cosWaveSeries.length; i++)
+            cosWaveSeries[i] = 20 * Math.cos(i * ((Math.PI * 4) / cosWaveSeries.length));
+
+        for (Overlap overlap : Overlap.values()) {
+            ASCIIGraph graph = ASCIIGraph.fromSeries(sinWaveSeries, cosWaveSeries, randomWaveSeries)
+                    .withNumRows(20)
+                    .withOverlap(overlap)
+                    .withSeriesColors("\u001B[31m", "\u001B[32m", "\u001B[34m");
+
+            StringWriter output = new StringWriter();
+            graph.plotTo(output);
+            assertEquals(graph.plot(), output.toString());
+        }
+    }
+
+    @Test
+    public void testSingleSeriesAsMultipleSeries() {
+        assertEquals(
+                ASCIIGraph.fromSeries(randomWaveSeries).plot(),
+                ASCIIGraph.fromSeries(new double[][]{randomWaveSeries}).plot()
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedSeriesGlyphs() {
+        ASCIIGraph.fromSeries(sinWaveSeries, randomWaveSeries).withSeriesGlyphs('*');
+    }
+
+    @Test
+    public void testRenderListener() {
+        List<RenderMetrics> renders = new ArrayList<>();
+
+        String plot = ASCIIGraph.fromSeries(sinWaveSeries).withNumRows(15).withRenderListener(renders::add).plot();
+
+        assertEquals(1, renders.size());
+        RenderMetrics metrics = renders.get(0);
+        assertEquals(RenderMetrics.Kind.GRAPH, metrics.getKind());
+        assertEquals(15, metrics.getRows());
+        assertEquals(plot.length(), metrics.getChars());
+        assertEquals(plot.length() - 15, metrics.getCells());
+        assertEquals(-1, metrics.getBytes());
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.mitchtalmadge.asciidata.graph;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LiveGraphTest {
+
+    @Test
+    public void testMatchesGraphOfVisibleValues() throws IOException {
+        Random random = new Random(42);
+        double[] series = new double[300];
+        for (int i = 0; i < series.length; i++)
+            series[i] = 20 + 10 * Math.sin(i / 8.0) + random.nextInt(5);
+
+        for (int numRows : new int[]{0, 12}) {
+            LiveGraph liveGraph = LiveGraph.withCapacity(60).withNumRows(numRows);
+            StringBuilder output = new StringBuilder();
+            for (int i = 0; i < series.length; i++) {
+                liveGraph.add(series[i]);
+
+                double[] visible = Arrays.copyOfRange(series, Math.max(0, i + 1 - 60), i + 1);
+                String expected = ASCIIGraph.fromSeries(visible).withNumRows(numRows).plot();
+                assertEquals(expected, liveGraph.plot());
+
+                output.setLength(0);
+                liveGraph.plotTo(output);
+                assertEquals(expected, output.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testMinAndMaxLeaveTheWindow() {
+        LiveGraph liveGraph = LiveGraph.withCapacity(4).withNumRows(5);
+        double[] series = new double[]{100, 1, 2, 3, 4, 5, -50, 6, 7, 8, 9, 10};
+        for (int i = 0; i < series.length; i++) {
+            liveGraph.add(series[i]);
+
+            double[] visible = Arrays.copyOfRange(series, Math.max(0, i + 1 - 4), i + 1);
+            assertEquals(ASCIIGraph.fromSeries(visible).withNumRows(5).plot(), liveGraph.plot());
+        }
+        assertEquals(4, liveGraph.getVisibleCount());
+    }
+
+    @Test
+    public void testSingleRow() {
+        LiveGraph liveGraph = LiveGraph.withCapacity(3).withMaxNumRows(1);
+        liveGraph.add(1).add(5).add(3);
+
+        assertEquals(ASCIIGraph.fromSeries(new double[]{1, 5, 3}).withMaxNumRows(1).plot(), liveGraph.plot());
+        assertEquals("    5.00 ┼──\n", liveGraph.plot());
+    }
+
+    @Test
+    public void testTickWidthAndFormat() {
+        LiveGraph liveGraph = LiveGraph.withCapacity(4).withNumRows(4);
+        liveGraph.add(1000).add(-20).add(35.5).add(7);
+        double[] visible = new double[]{1000, -20, 35.5, 7};
+        assertEquals(ASCIIGraph.fromSeries(visible).withNumRows(4).plot(), liveGraph.plot());
+
+        // Ticks wider than the tick width push into the axis, the same as in ASCIIGraph.
+        liveGraph.withTickWidth(3);
+        assertEquals(ASCIIGraph.fromSeries(visible).withNumRows(4).withTickWidth(3).plot(), liveGraph.plot());
+
+        liveGraph.withTickWidth(6).withTickFormat(new DecimalFormat("0"));
+        assertEquals(ASCIIGraph.fromSeries(visible).withNumRows(4).withTickWidth(6).withTickFormat(new DecimalFormat("0")).plot(),
+                liveGraph.plot());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPlotWithoutValues() {
+        LiveGraph.withCapacity(10).plot();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonFiniteValue() {
+        LiveGraph.withCapacity(10).add(Double.NaN);
+    }
+
+}
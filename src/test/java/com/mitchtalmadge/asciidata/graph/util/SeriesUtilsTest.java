@@ -20,6 +20,20 @@ public class SeriesUtilsTest {
         assertArrayEquals(new double[] {1, 1}, SeriesUtils.getMinAndMaxValues(series), 0.1);
     }
 
+    @Test
+    public void testMinAndMaxValuesWithNegativeSeries() {
+        double[] series = new double[]{-3, -1.5, -8};
+
+        assertArrayEquals(new double[]{-8, -1.5}, SeriesUtils.getMinAndMaxValues(series), 0);
+    }
+
+    @Test
+    public void testMinAndMaxValuesOfMultipleSeries() {
+        double[][] series = new double[][]{{3, 4, 5}, {-2}, {10, 0}};
+
+        assertArrayEquals(new double[]{-2, 10}, SeriesUtils.getMinAndMaxValuesOfAll(series), 0);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testMinAndMaxValuesWithSeriesLengthZero() {
         SeriesUtils.getMinAndMaxValues(new double[0]);
@@ -30,4 +44,52 @@ public class SeriesUtilsTest {
         SeriesUtils.getMinAndMaxValues(null);
     }
 
+    @Test
+    public void testDownsampleMinMax() {
+        double[] series = new double[]{1, 5, 2, 2, -9, 3, 4, 4, 4, 100, 0, 1};
+
+        // Each bucket of 3 keeps its min and max, in the order they appear.
+        assertArrayEquals(new double[]{1, 5, -9, 3, 4, 4, 100, 0}, SeriesUtils.downsampleMinMax(series, 8), 0);
+        // An odd number of points is rounded down.
+        assertArrayEquals(new double[]{1, 5, -9, 3, 4, 4, 100, 0}, SeriesUtils.downsampleMinMax(series, 9), 0);
+    }
+
+    @Test
+    public void testDownsampleMinMaxKeepsSpikes() {
+        double[] series = new double[100000];
+        series[31337] = 50;
+        series[77777] = -50;
+
+        double[] downsampled = SeriesUtils.downsampleMinMax(series, 60);
+        assertEquals(60, downsampled.length);
+        assertArrayEquals(new double[]{-50, 50}, SeriesUtils.getMinAndMaxValues(downsampled), 0);
+    }
+
+    @Test
+    public void testDownsampleLargestTriangleThreeBuckets() {
+        double[] series = new double[]{0, 1, 0, 1, 0, 10, 0, 1, 0, 1, 0, 2};
+
+        double[] downsampled = SeriesUtils.downsampleLargestTriangleThreeBuckets(series, 5);
+        assertEquals(5, downsampled.length);
+        // The first and last values are always kept, and the peak forms the largest triangle in its bucket.
+        assertEquals(0, downsampled[0], 0);
+        assertEquals(2, downsampled[4], 0);
+        assertEquals(10, downsampled[2], 0);
+    }
+
+    @Test
+    public void testDownsampleShortSeries() {
+        double[] series = new double[]{3, 1, 2};
+
+        double[] downsampled = SeriesUtils.downsampleLargestTriangleThreeBuckets(series, 10);
+        assertArrayEquals(series, downsampled, 0);
+        assertNotSame(series, downsampled);
+        assertArrayEquals(series, SeriesUtils.downsampleMinMax(series, 10), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDownsampleTooFewPoints() {
+        SeriesUtils.downsampleLargestTriangleThreeBuckets(new double[]{1, 2, 3, 4}, 2);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.mitchtalmadge.asciidata.metrics;
+
+import com.mitchtalmadge.asciidata.table.ASCIITable;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class JfrRenderListenerTest {
+
+    @Test
+    public void testRenderEvents() throws IOException {
+        ASCIITable table = ASCIITable.fromData(new String[]{"ID", "Name"}, new String[][]{{"1", "Alfred"}, {"2", "Alice"}})
+                .withRenderListener(JfrRenderListener.getInstance());
+
+        // Renders while nothing is recording are not recorded.
+        table.toString();
+
+        Path file = Files.createTempFile("renders", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.mitchtalmadge.asciidata.Render");
+            recording.start();
+            String rendered = table.toString();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.mitchtalmadge.asciidata.Render"))
+                    .collect(Collectors.toList());
+
+            assertEquals(1, events.size());
+            RecordedEvent event = events.get(0);
+            assertEquals("TABLE", event.getString("kind"));
+            assertEquals(2, event.getInt("rows"));
+            assertEquals(4, event.getLong("cells"));
+            assertEquals(rendered.length(), event.getLong("chars"));
+            assertEquals(-1, event.getLong("bytes"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.mitchtalmadge.asciidata.render;
+
+import com.mitchtalmadge.asciidata.graph.ASCIIGraph;
+import com.mitchtalmadge.asciidata.table.ASCIITable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RenderServiceTest {
+
+    @Test
+    public void testSubmitTableAndGraph() throws Exception {
+        ASCIITable table = ASCIITable.fromData(new String[]{"ID", "Name"}, new String[][]{{"1", "Alfred"}, {"2", "Alice"}});
+        ASCIIGraph graph = ASCIIGraph.fromSeries(new double[]{1, 5, 3, 8, 2});
+
+        try (RenderService service = RenderService.create(2)) {
+            assertEquals(table.toString(), service.submit(table).get(10, TimeUnit.SECONDS));
+            assertEquals(graph.plot(), service.submit(graph).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testBatchResultsInOrder() throws Exception {
+        List<Supplier<String>> renders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int index = i;
+            renders.add(() -> {
+                // Make the earliest renders finish last.
+                sleep(20 - index);
+                return String.valueOf(index);
+            });
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(String.valueOf(i));
+        }
+
+        try (RenderService service = RenderService.create(4)) {
+            assertEquals(expected, service.submitAll(renders).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Supplier<String>> renders = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            renders.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(10);
+                running.decrementAndGet();
+                return "";
+            });
+        }
+
+        try (RenderService service = RenderService.create(3)) {
+            assertEquals(12, service.submitAll(renders).get(10, TimeUnit.SECONDS).size());
+        }
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    public void testFailedRender() throws Exception {
+        try (RenderService service = RenderService.create(1)) {
+            CompletableFuture<List<String>> batch = service.submitAll(Arrays.asList(
+                    () -> "fine",
+                    () -> {
+                        throw new IllegalStateException("broken");
+                    }));
+
+            try {
+                batch.join();
+                fail();
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+
+            // The permit of the failed render was released.
+            assertEquals("again", service.submit(() -> "again").get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        RenderService.create(0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
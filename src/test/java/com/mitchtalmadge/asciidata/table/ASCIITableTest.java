@@ -1,12 +1,33 @@
 package com.mitchtalmadge.asciidata.table;
 
 import com.mitchtalmadge.asciidata.TestUtils;
+import com.mitchtalmadge.asciidata.metrics.RenderListener;
+import com.mitchtalmadge.asciidata.metrics.RenderMetrics;
 import com.mitchtalmadge.asciidata.table.formats.ASCIITableFormat;
+import com.mitchtalmadge.asciidata.table.formats.UTF8TableFormat;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ASCIITableTest {
 
@@ -180,6 +201,71 @@ public class ASCIITableTest {
     }
 
 
+    /**
+     * Tests a table which has other tables nested within it as blocks, rather than as rendered strings.
+     */
+    @Test
+    public void testNestedTableBlocks() throws IOException {
+
+        String[] nestedHeaders = new String[]{"First", "Last"};
+        String[] names = new String[]{"Alfred Alan", "Alison Smart", "Ben Bessel", "John Roberts"};
+        String[] ids = new String[]{"123", "223", "256", "374"};
+        String[] emails = new String[]{"aalan@gmail.com", "asmart@gmail.com", "benb@outlook.com", "johnrob@company.com"};
+
+        String[] headers = new String[]{"ID", "Name", "Email"};
+        CharSequence[][] data = new CharSequence[names.length][];
+        CharSequence[][] dataASCIIFormat = new CharSequence[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            data[i] = new CharSequence[]{ids[i], ASCIITable.fromData(nestedHeaders, new String[][]{names[i].split(" ")}).asBlock(), emails[i]};
+            dataASCIIFormat[i] = new CharSequence[]{ids[i], ASCIITable.fromData(nestedHeaders, new String[][]{names[i].split(" ")})
+                    .withTableFormat(new ASCIITableFormat()).asBlock(), emails[i]};
+        }
+
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/nestedTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromData(headers, data).toString())
+        );
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/ascii/nestedTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromData(headers, dataASCIIFormat).withTableFormat(new ASCIITableFormat()).toString())
+        );
+    }
+
+    /**
+     * Tests that blocks nested several levels deep render the same as nested strings.
+     */
+    @Test
+    public void testDeeplyNestedTableBlocks() {
+
+        ASCIITable innerTable = ASCIITable.fromData(new String[]{"A", "B"}, new String[][]{{"1", "2\n3"}, {null, "4"}})
+                .withNullValue("n/a");
+        String innerString = innerTable.toString();
+        Block innerBlock = innerTable.asBlock();
+
+        // A block reads the same as the table it renders, without the trailing newline.
+        assertEquals(innerString.substring(0, innerString.length() - 1), innerBlock.toString());
+
+        String[] headers = new String[]{"Left", "Right"};
+        ASCIITable middleFromString = ASCIITable.fromData(headers, new String[][]{{"x", innerString}, {innerString, "y"}})
+                .alignColumn(1, Align.RIGHT);
+        ASCIITable middleFromBlock = ASCIITable.fromData(headers, new CharSequence[][]{{"x", innerBlock}, {innerBlock, "y"}})
+                .alignColumn(1, Align.RIGHT);
+        assertEquals(middleFromString.toString(), middleFromBlock.toString());
+
+        String middleString = middleFromString.toString();
+        String outerFromString = ASCIITable.fromData(new String[]{"Outer"}, new String[][]{{middleString}, {"z"}}).toString();
+        String outerFromBlock = ASCIITable.fromData(new String[]{"Outer"}, new CharSequence[][]{{middleFromBlock.asBlock()}, {"z"}}).toString();
+        assertEquals(outerFromString, outerFromBlock);
+
+        // Blocks too wide for their columns are truncated like any other text.
+        String truncatedFromString = ASCIITable.fromData(new String[]{"Outer"}, new String[][]{{innerString}},
+                WidthStrategy.fixed(Overflow.ELLIPSIS, 6)).toString();
+        String truncatedFromBlock = ASCIITable.fromData(new String[]{"Outer"}, new CharSequence[][]{{innerBlock}},
+                WidthStrategy.fixed(Overflow.ELLIPSIS, 6)).toString();
+        assertEquals(truncatedFromString, truncatedFromBlock);
+    }
+
+
     /**
      * Tests a table with custom null data.
      */
@@ -206,6 +292,47 @@ public class ASCIITableTest {
 
     }
 
+    /**
+     * Tests that null cells are measured as the null value, even when it is wider or taller than the rest of its column.
+     */
+    @Test
+    public void testNullValueWiderThanColumn() {
+
+        String[] headers = new String[]{"A", "B"};
+        String[][] data = new String[][]{
+                {null, "x"},
+                {"1", "y"},
+        };
+
+        String expected = "" +
+                "╔═══════════╤═══╗\n" +
+                "║ A         │ B ║\n" +
+                "╠═══════════╪═══╣\n" +
+                "║ NULLVALUE │ x ║\n" +
+                "╟───────────┼───╢\n" +
+                "║ 1         │ y ║\n" +
+                "╚═══════════╧═══╝\n";
+        assertEquals(expected, ASCIITable.fromData(headers, data).withNullValue("NULLVALUE").toString());
+
+        // Tables which are not measured from their rows, or are rendered by other means, fit the null value the same way.
+        OffHeapRows rows = OffHeapRows.withHeaders(headers).add(data[0]).add(data[1]);
+        assertEquals(expected, ASCIITable.fromOffHeap(rows).withNullValue("NULLVALUE").toString());
+        assertEquals(expected, TableTemplate.fromHeaders(headers).withNullValue("NULLVALUE").render(data));
+        assertEquals(expected, LiveTable.fromHeaders(headers).withNullValue("NULLVALUE").update(data));
+
+        // Multi-line null values make their rows taller.
+        assertEquals("" +
+                        "╔══════╤═══╗\n" +
+                        "║ A    │ B ║\n" +
+                        "╠══════╪═══╣\n" +
+                        "║ NULL │ x ║\n" +
+                        "║ VAL  │   ║\n" +
+                        "╟──────┼───╢\n" +
+                        "║ 1    │ y ║\n" +
+                        "╚══════╧═══╝\n",
+                ASCIITable.fromData(headers, data).withNullValue("NULL\nVAL").toString());
+    }
+
     /**
      * Tests a table with default null data.
      */
@@ -231,4 +358,548 @@ public class ASCIITableTest {
         );
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests rendering a table directly to a Writer.
+     */
+    @Test
+    public void testRenderToWriter() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name", "Email"};
+        String[][] data = new String[][]{
+                {"123", "Alfred\nAlan", "aalan@gmail.com"},
+                {"223", "Alison\nSmart", "asmart@gmail.com"},
+                {"256", "Ben\nBessel", "benb@outlook.com"},
+                {"374", "John\nRoberts", "johnrob@company.com"},
+        };
+
+        StringWriter writer = new StringWriter();
+        ASCIITable.fromData(headers, data).renderTo(writer);
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/multiLineTable.txt")),
+                TestUtils.commonizeLineEndings(writer.toString())
+        );
+
+        // Empty Table
+        writer = new StringWriter();
+        ASCIITable.fromData(headers, null).withTableFormat(new ASCIITableFormat()).renderTo(writer);
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/ascii/emptyTable.txt")),
+                TestUtils.commonizeLineEndings(writer.toString())
+        );
+    }
+
+    /**
+     * Tests tables whose column widths are chosen by a width strategy, using each kind of overflow.
+     */
+    @Test
+    public void testWidthStrategies() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name", "Email"};
+        String[][] data = new String[][]{
+                {"123", "Alfred Alan", "aalan@gmail.com"},
+                {"223", "Alison Smart", "asmart@gmail.com"},
+                {"256", "Ben Bessel", "benb@outlook.com"},
+                {"374", "John Roberts", "johnrob@company.com"},
+        };
+
+        // Capped, with ellipses
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/cappedTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromData(headers, data, WidthStrategy.capped(10, Overflow.ELLIPSIS)).toString())
+        );
+        // ASCII Table Format
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/ascii/cappedTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromData(headers, data, WidthStrategy.capped(10, Overflow.ELLIPSIS)).withTableFormat(new ASCIITableFormat()).toString())
+        );
+
+        // Fixed, with wrapping
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/wrappedTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromData(headers, data, WidthStrategy.fixed(Overflow.WRAP, 3, 6, 8)).toString())
+        );
+
+        // Sampled, with truncation
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/sampledTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromData(headers, data, WidthStrategy.sampled(1, Overflow.TRUNCATE)).toString())
+        );
+
+        // Exact is the default
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/simpleTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromData(headers, data, WidthStrategy.exact()).toString())
+        );
+    }
+
+    /**
+     * Tests a table with fixed widths that do not cover every column.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotEnoughFixedWidths() {
+        String[] headers = new String[]{"ID", "Name", "Email"};
+        ASCIITable.fromData(headers, null, WidthStrategy.fixed(Overflow.TRUNCATE, 3, 6));
+    }
+
+    /**
+     * Tests a table built from typed columns.
+     */
+    @Test
+    public void testColumns() throws IOException {
+
+        TableColumn ids = TableColumn.ofInts("ID", new int[]{123, 223, 256, 374});
+        TableColumn names = TableColumn.ofStrings("Name", new String[]{"Alfred Alan", "Alison Smart", "Ben Bessel", "John Roberts"});
+        TableColumn emails = TableColumn.ofStrings("Email", new String[]{"aalan@gmail.com", "asmart@gmail.com", "benb@outlook.com", "johnrob@company.com"});
+
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/simpleTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromColumns(ids, names, emails).toString())
+        );
+        // ASCII Table Format
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/ascii/simpleTableRight.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromColumns(ids, names, emails).alignColumn(2, Align.RIGHT).withTableFormat(new ASCIITableFormat()).toString())
+        );
+
+        // Numeric columns render the same as their formatted strings.
+        TableColumn counts = TableColumn.ofLongs("Count", new long[]{1234567L, -5L, 0L}).withGroupingSeparator(',');
+        TableColumn latencies = TableColumn.ofDoubles("Latency", new double[]{0.125, 12.5, Double.NaN}, 2);
+        assertEquals(
+                ASCIITable.fromData(new String[]{"Count", "Latency"}, new String[][]{
+                        {"1,234,567", "0.13"},
+                        {"-5", "12.50"},
+                        {"0", "NaN"},
+                }).toString(),
+                ASCIITable.fromColumns(counts, latencies).toString()
+        );
+    }
+
+    /**
+     * Tests a table built from columns of different lengths.
+     */
+    @Test
+    public void testCategoryColumns() {
+        String[] statuses = new String[5000];
+        String[] hosts = new String[5000];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = i % 3 == 0 ? null : i % 3 == 1 ? "OK" : "Multi\nLine";
+            // More than 256 distinct hosts, so their codes are widened from bytes to shorts.
+            hosts[i] = "host-" + (i % 300);
+        }
+
+        TableColumn.Categories statusColumn = TableColumn.ofCategories("Status", statuses);
+        TableColumn.Categories hostColumn = TableColumn.ofCategories("Host", hosts);
+        assertEquals(2, statusColumn.getDistinctValuesCount());
+        assertEquals(300, hostColumn.getDistinctValuesCount());
+
+        String[][] data = new String[statuses.length][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new String[]{statuses[i], hosts[i]};
+        }
+        String[] headers = new String[]{"Status", "Host"};
+
+        assertEquals(
+                ASCIITable.fromData(headers, data).withNullValue("n/a").alignColumn(1, Align.RIGHT).toString(),
+                ASCIITable.fromColumns(statusColumn, hostColumn).withNullValue("n/a").alignColumn(1, Align.RIGHT).toString()
+        );
+
+        // Paddings are cached for each width and alignment, so narrower columns and other alignments still render correctly.
+        assertEquals(
+                ASCIITable.fromData(headers, data, WidthStrategy.fixed(Overflow.ELLIPSIS, 3, 6), ForkJoinPool.commonPool()).toString(),
+                ASCIITable.fromColumns(WidthStrategy.fixed(Overflow.ELLIPSIS, 3, 6), statusColumn, hostColumn).toString()
+        );
+    }
+
+    @Test
+    public void testManyCategories() {
+        TableColumn.Categories column = TableColumn.ofCategories("Value");
+        String[][] data = new String[70000][];
+        for (int i = 0; i < data.length; i++) {
+            column.add(i % 10 == 0 ? null : String.valueOf(i));
+            data[i] = new String[]{i % 10 == 0 ? null : String.valueOf(i)};
+        }
+
+        // More than 65536 distinct values, so the codes are widened from bytes to shorts to ints.
+        assertEquals(63000, column.getDistinctValuesCount());
+        assertEquals(ASCIITable.fromData(new String[]{"Value"}, data).toString(), ASCIITable.fromColumns(column).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedColumns() {
+        ASCIITable.fromColumns(
+                TableColumn.ofInts("ID", new int[]{1, 2, 3}),
+                TableColumn.ofStrings("Name", new String[]{"Alfred Alan", "Alison Smart"})
+        );
+    }
+
+    /**
+     * Tests tables whose rows are pulled lazily from row sources.
+     */
+    @Test
+    public void testRowSources() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name", "Email"};
+        String[][] data = new String[][]{
+                {"123", "Alfred Alan", "aalan@gmail.com"},
+                {"223", "Alison Smart", "asmart@gmail.com"},
+                {"256", "Ben Bessel", "benb@outlook.com"},
+                {"374", "John Roberts", "johnrob@company.com"},
+        };
+        String expected = TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/simpleTable.txt"));
+
+        // Two-pass sources can be rendered more than once.
+        ASCIITable iterableTable = ASCIITable.fromRows(headers, RowSource.fromIterable(Arrays.asList(data)));
+        assertEquals(expected, TestUtils.commonizeLineEndings(iterableTable.toString()));
+        assertEquals(expected, TestUtils.commonizeLineEndings(iterableTable.toString()));
+
+        ASCIITable streamSupplierTable = ASCIITable.fromRows(headers, RowSource.fromStreamSupplier(() -> Arrays.stream(data)));
+        assertEquals(expected, TestUtils.commonizeLineEndings(streamSupplierTable.toString()));
+
+        // One-pass sources, where every row is sampled.
+        assertEquals(
+                expected,
+                TestUtils.commonizeLineEndings(ASCIITable.fromRows(headers, RowSource.fromIterator(Arrays.asList(data).iterator()), WidthStrategy.sampled(4, Overflow.TRUNCATE)).toString())
+        );
+        assertEquals(
+                expected,
+                TestUtils.commonizeLineEndings(ASCIITable.fromRows(headers, RowSource.fromSpliterator(Arrays.spliterator(data)), WidthStrategy.sampled(10, Overflow.TRUNCATE)).toString())
+        );
+
+        // One-pass source, where only the first row is sampled.
+        StringWriter writer = new StringWriter();
+        ASCIITable.fromRows(headers, RowSource.fromStream(Arrays.stream(data)), WidthStrategy.sampled(1, Overflow.TRUNCATE)).renderTo(writer);
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/sampledTable.txt")),
+                TestUtils.commonizeLineEndings(writer.toString())
+        );
+
+        // Empty source
+        assertEquals(
+                TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/utf8/emptyTable.txt")),
+                TestUtils.commonizeLineEndings(ASCIITable.fromRows(headers, RowSource.fromIterable(Collections.emptyList())).toString())
+        );
+    }
+
+    /**
+     * Tests that a table from a one-pass row source cannot be rendered twice.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testOnePassRowSourceRenderedTwice() {
+        String[] headers = new String[]{"ID"};
+        ASCIITable table = ASCIITable.fromRows(headers, RowSource.fromIterator(Arrays.asList(new String[]{"1"}, new String[]{"2"}).iterator()), WidthStrategy.sampled(1, Overflow.TRUNCATE));
+
+        table.toString();
+        table.toString();
+    }
+
+    /**
+     * Tests that a one-pass row source cannot measure every row.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOnePassRowSourceWithExactWidths() {
+        String[] headers = new String[]{"ID"};
+        ASCIITable.fromRows(headers, RowSource.fromIterator(Collections.<String[]>emptyList().iterator()));
+    }
+
+    /**
+     * Tests a row source with too few columns in one of its rows.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRowSourceNotEnoughColumns() {
+        String[] headers = new String[]{"ID", "Name"};
+        ASCIITable.fromRows(headers, RowSource.fromIterable(Arrays.asList(new String[]{"1", "Alfred"}, new String[]{"2"}))).toString();
+    }
+
+    /**
+     * Tests that a large table measured and rendered in parallel is identical to one rendered on a single thread.
+     */
+    @Test
+    public void testParallelRendering() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name", "Notes"};
+        String[][] data = new String[20000][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new String[]{String.valueOf(i), i % 7 == 0 ? null : "Name " + i, i % 1000 == 0 ? "Multiple\nLines" : "x"};
+        }
+
+        String expected = ASCIITable.fromData(headers, data).withNullValue("n/a").alignColumn(0, Align.RIGHT).toString();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ASCIITable parallelTable = ASCIITable.fromData(headers, data, WidthStrategy.exact(), pool)
+                    .withNullValue("n/a")
+                    .alignColumn(0, Align.RIGHT);
+
+            assertEquals(expected, parallelTable.toString());
+
+            StringWriter writer = new StringWriter();
+            parallelTable.renderTo(writer);
+            assertEquals(expected, writer.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that every table fixture renders identically through both {@link ASCIITable#toString()}
+     * and {@link ASCIITable#renderTo(Appendable)}, in both formats.
+     */
+    @Test
+    public void testRenderToBytes() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name", "Emoji"};
+        String[][] data = new String[][]{
+                {"1", "Alfred", "\uD83D\uDE00"},
+                {"2", "Zoë", null},
+                {"3", "Bob\nBobson", "Ω"},
+        };
+
+        for (ASCIITable table : new ASCIITable[]{
+                ASCIITable.fromData(headers, data),
+                ASCIITable.fromData(headers, data).withTableFormat(new ASCIITableFormat())}) {
+            byte[] expected = table.toString().getBytes(StandardCharsets.UTF_8);
+
+            // A buffer small enough to be drained in the middle of characters and rows, reused between renders.
+            ByteBuffer buffer = ByteBuffer.allocate(7);
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                table.renderTo(Channels.newChannel(output), buffer);
+                assertArrayEquals(expected, output.toByteArray());
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            table.renderTo(Channels.newChannel(output));
+            assertArrayEquals(expected, output.toByteArray());
+
+            // Directly into a buffer that fits exactly.
+            ByteBuffer exact = ByteBuffer.allocate(expected.length);
+            table.renderTo(exact);
+            assertFalse(exact.hasRemaining());
+            assertArrayEquals(expected, exact.array());
+        }
+    }
+
+    @Test
+    public void testExportTo() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name", "Emoji"};
+        String[][] data = new String[3000][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new String[]{String.valueOf(i), i % 7 == 0 ? "Zoë\nZoëson" : "Alfred", i % 5 == 0 ? null : "\uD83D\uDE00"};
+        }
+
+        Path file = Files.createTempFile("table", ".txt");
+        try {
+            // Leave something longer in the file, which the export must replace.
+            Files.write(file, new byte[1 << 20]);
+
+            for (ASCIITable table : new ASCIITable[]{
+                    ASCIITable.fromData(headers, data).withNullValue("-"),
+                    ASCIITable.fromData(headers, data, WidthStrategy.exact(), ForkJoinPool.commonPool()).withNullValue("-"),
+                    ASCIITable.fromData(headers, new String[0][0])}) {
+                byte[] expected = table.toString().getBytes(StandardCharsets.UTF_8);
+
+                assertEquals(expected.length, table.exportTo(file));
+                assertArrayEquals(expected, Files.readAllBytes(file));
+
+                // Every chunk of rows in a window of its own.
+                assertEquals(expected.length, table.exportTo(file, 1));
+                assertArrayEquals(expected, Files.readAllBytes(file));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testRenderToByteBufferOverflow() {
+        ASCIITable.fromData(new String[]{"A"}, new String[][]{{"1"}}).renderTo(ByteBuffer.allocate(10));
+    }
+
+    @Test
+    public void testRenderListener() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name"};
+        String[][] data = new String[][]{{"1", "Alfred"}, {"2", "Zoë"}, {"3", "Bob\nBobson"}};
+
+        List<RenderMetrics> renders = new ArrayList<>();
+        List<int[]> growths = new ArrayList<>();
+        ASCIITable table = ASCIITable.fromData(headers, data).withRenderListener(new RenderListener() {
+            @Override
+            public void onRender(RenderMetrics metrics) {
+                renders.add(metrics);
+            }
+
+            @Override
+            public void onBufferGrowth(RenderMetrics.Kind kind, int initialCapacity, int finalCapacity) {
+                growths.add(new int[]{initialCapacity, finalCapacity});
+            }
+        });
+
+        String rendered = table.toString();
+        StringWriter writer = new StringWriter();
+        table.renderTo(writer);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        table.renderTo(Channels.newChannel(bytes), ByteBuffer.allocate(16));
+        table.renderRows(1, 1);
+
+        assertEquals(4, renders.size());
+        for (RenderMetrics metrics : renders) {
+            assertEquals(RenderMetrics.Kind.TABLE, metrics.getKind());
+            assertTrue(metrics.getDurationNanos() >= 0);
+        }
+
+        assertEquals(3, renders.get(0).getRows());
+        assertEquals(6, renders.get(0).getCells());
+        assertEquals(rendered.length(), renders.get(0).getChars());
+        assertEquals(-1, renders.get(0).getBytes());
+
+        assertEquals(3, renders.get(1).getRows());
+        assertEquals(rendered.length(), renders.get(1).getChars());
+
+        assertEquals(rendered.length(), renders.get(2).getChars());
+        assertEquals(bytes.size(), renders.get(2).getBytes());
+
+        assertEquals(0, renders.get(3).getRows());
+        assertEquals(table.renderRows(1, 1).length(), renders.get(3).getChars());
+
+        // The size of the table is estimated exactly, so its buffer never grows.
+        assertEquals(0, growths.size());
+    }
+
+    @Test
+    public void testChangingTableFormat() {
+
+        String[] headers = new String[]{"ID", "Name"};
+        String[][] data = new String[][]{{"1", "Alfred"}, {"2", "Alice"}};
+
+        String utf8 = ASCIITable.fromData(headers, data).toString();
+        String ascii = ASCIITable.fromData(headers, data).withTableFormat(new ASCIITableFormat()).toString();
+
+        // The compiled format must follow the table's format when it changes between renders.
+        ASCIITable table = ASCIITable.fromData(headers, data);
+        assertEquals(utf8, table.toString());
+        assertEquals(ascii, table.withTableFormat(new ASCIITableFormat()).toString());
+        assertEquals(utf8, table.withTableFormat(new UTF8TableFormat()).toString());
+    }
+
+    @Test
+    public void testRenderRows() throws IOException {
+
+        String[] headers = new String[]{"ID", "Name"};
+        String[][] data = new String[][]{
+                {"1", "Alfred Alan"},
+                {"2", "Alice"},
+                {"3", "Bob\nBobson"},
+                {"4", null},
+                {"100", "Zed"},
+        };
+        ASCIITable table = ASCIITable.fromData(headers, data).withNullValue("n/a");
+
+        // Each page keeps the widths of the whole table, so it matches a table of only its rows with those widths.
+        String[][] page = Arrays.copyOfRange(data, 1, 4);
+        String expected = ASCIITable.fromData(headers, page, WidthStrategy.fixed(Overflow.TRUNCATE, 3, 11)).withNullValue("n/a").toString();
+        assertEquals(expected, table.renderRows(1, 4));
+
+        StringWriter writer = new StringWriter();
+        table.renderTo(writer, 1, 4);
+        assertEquals(expected, writer.toString());
+
+        // The whole table.
+        assertEquals(table.toString(), table.renderRows(0, data.length));
+
+        // An empty window.
+        String empty = ASCIITable.fromData(headers, new String[0][], WidthStrategy.fixed(Overflow.TRUNCATE, 3, 11)).toString();
+        assertEquals(empty, table.renderRows(2, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRenderRowsOutOfBounds() {
+        ASCIITable.fromData(new String[]{"A"}, new String[][]{{"1"}}).renderRows(0, 2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRenderRowsFromRowSource() {
+        ASCIITable.fromRows(new String[]{"A"}, RowSource.fromIterable(Collections.singletonList(new String[]{"1"}))).renderRows(0, 1);
+    }
+
+    @Test
+    public void testParallelRenderRows() {
+
+        String[] headers = new String[]{"ID", "Name"};
+        String[][] data = new String[10000][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new String[]{String.valueOf(i), i % 500 == 0 ? "Multiple\nLines" : "Name " + i};
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String expected = ASCIITable.fromData(headers, data).renderRows(1500, 7000);
+            assertEquals(expected, ASCIITable.fromData(headers, data, WidthStrategy.exact(), pool).renderRows(1500, 7000));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testAllFixtures() throws IOException {
+        for (String format : new String[]{"utf8", "ascii"}) {
+            for (Map.Entry<String, ASCIITable> fixture : createFixtureTables(format.equals("ascii")).entrySet()) {
+                String expected = TestUtils.commonizeLineEndings(TestUtils.readFileToString("tables/" + format + "/" + fixture.getKey() + ".txt"));
+
+                assertEquals(fixture.getKey(), expected, TestUtils.commonizeLineEndings(fixture.getValue().toString()));
+
+                StringBuilder output = new StringBuilder();
+                fixture.getValue().renderTo(output);
+                assertEquals(fixture.getKey(), expected, TestUtils.commonizeLineEndings(output.toString()));
+            }
+        }
+    }
+
+    /**
+     * Creates a table for each of the table fixtures, keyed by the fixture's file name.
+     *
+     * @param asciiFormat True if the tables should use the {@link ASCIITableFormat}.
+     * @return The tables, keyed by the name of the fixture they should render to.
+     */
+    private static Map<String, ASCIITable> createFixtureTables(boolean asciiFormat) {
+        String[] headers = new String[]{"ID", "Name", "Email"};
+        String[] emails = new String[]{"aalan@gmail.com", "asmart@gmail.com", "benb@outlook.com", "johnrob@company.com"};
+        String[] names = new String[]{"Alfred Alan", "Alison Smart", "Ben Bessel", "John Roberts"};
+
+        String[][] simpleData = new String[4][];
+        String[][] multiLineData = new String[4][];
+        String[][] nullData = new String[4][];
+        String[][] nestedData = new String[4][];
+        for (int i = 0; i < 4; i++) {
+            String id = String.valueOf(new int[]{123, 223, 256, 374}[i]);
+            simpleData[i] = new String[]{id, names[i], emails[i]};
+            multiLineData[i] = new String[]{id, names[i].replace(' ', '\n'), emails[i]};
+            nullData[i] = new String[]{id, i == 1 ? null : names[i], emails[i]};
+
+            ASCIITable nestedTable = ASCIITable.fromData(new String[]{"First", "Last"}, new String[][]{names[i].split(" ")});
+            if (asciiFormat)
+                nestedTable.withTableFormat(new ASCIITableFormat());
+            nestedData[i] = new String[]{id, nestedTable.toString(), emails[i]};
+        }
+
+        Map<String, ASCIITable> tables = new LinkedHashMap<>();
+        tables.put("simpleTable", ASCIITable.fromData(headers, simpleData));
+        tables.put("simpleTableRight", ASCIITable.fromData(headers, simpleData).alignColumn(2, Align.RIGHT));
+        tables.put("emptyTable", ASCIITable.fromData(headers, null));
+        tables.put("multiLineTable", ASCIITable.fromData(headers, multiLineData));
+        tables.put("nestedTable", ASCIITable.fromData(headers, nestedData));
+        tables.put("nullDataTable", ASCIITable.fromData(headers, nullData));
+        tables.put("customNullDataTable", ASCIITable.fromData(headers, nullData).withNullValue("n/a"));
+        tables.put("cappedTable", ASCIITable.fromData(headers, simpleData, WidthStrategy.capped(10, Overflow.ELLIPSIS)));
+        tables.put("wrappedTable", ASCIITable.fromData(headers, simpleData, WidthStrategy.fixed(Overflow.WRAP, 3, 6, 8)));
+        tables.put("sampledTable", ASCIITable.fromData(headers, simpleData, WidthStrategy.sampled(1, Overflow.TRUNCATE)));
+
+        if (asciiFormat) {
+            for (ASCIITable table : tables.values())
+                table.withTableFormat(new ASCIITableFormat());
+        }
+        return tables;
+    }
+}
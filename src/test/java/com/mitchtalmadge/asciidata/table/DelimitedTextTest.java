@@ -0,0 +1,127 @@
+package com.mitchtalmadge.asciidata.table;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class DelimitedTextTest {
+
+    @Test
+    public void testCsvFile() throws IOException {
+        String csv = "ID,Name,Notes\r\n" +
+                "1,Alfred,plain\r\n" +
+                "2,\"Smith, Alice\",\"She said \"\"hi\"\"\"\r\n" +
+                "3,,\"Multiple\nLines\"\r\n" +
+                "4,\"\",trailing\r\n";
+        String[][] expected = new String[][]{
+                {"1", "Alfred", "plain"},
+                {"2", "Smith, Alice", "She said \"hi\""},
+                {"3", "", "Multiple\nLines"},
+                {"4", "", "trailing"},
+        };
+
+        Path file = Files.createTempFile("table", ".csv");
+        try {
+            Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+            ASCIITable table = ASCIITable.fromDelimited(DelimitedText.csv(file));
+
+            // Two-pass text can be rendered more than once.
+            String rendered = ASCIITable.fromData(new String[]{"ID", "Name", "Notes"}, expected).toString();
+            assertEquals(rendered, table.toString());
+            assertEquals(rendered, table.toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLargeTsvFile() throws IOException {
+        // Enough rows to refill the buffer many times.
+        String[][] expected = new String[20000][];
+        StringBuilder tsv = new StringBuilder("Row\tValue\n");
+        for (int i = 0; i < expected.length; i++) {
+            String value = "value \"" + i + "\"";
+            expected[i] = new String[]{String.valueOf(i), value};
+            tsv.append(i).append('\t').append(value).append('\n');
+        }
+
+        Path file = Files.createTempFile("table", ".tsv");
+        try {
+            Files.write(file, tsv.toString().getBytes(StandardCharsets.UTF_8));
+            assertEquals(
+                    ASCIITable.fromData(new String[]{"Row", "Value"}, expected).toString(),
+                    ASCIITable.fromDelimited(DelimitedText.tsv(file)).toString()
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRecordLongerThanBuffer() {
+        String longValue = new String(new char[200000]).replace('\0', 'x');
+        String csv = "A,B\n1,2\n3,\"" + longValue + "\"\n5,6\n";
+        String[][] expected = new String[][]{{"1", "2"}, {"3", longValue}, {"5", "6"}};
+
+        WidthStrategy widthStrategy = WidthStrategy.sampled(1, Overflow.TRUNCATE);
+        assertEquals(
+                ASCIITable.fromData(new String[]{"A", "B"}, expected, widthStrategy).toString(),
+                ASCIITable.fromDelimited(DelimitedText.csv(new StringReader(csv)), widthStrategy).toString()
+        );
+    }
+
+    @Test
+    public void testOnePassReader() {
+        String tsv = "Host\tStatus\nalpha\tOK\nbeta\tDEGRADED\ngamma\tOK";
+        String[][] expected = new String[][]{{"alpha", "OK"}, {"beta", "DEGRADED"}, {"gamma", "OK"}};
+
+        WidthStrategy widthStrategy = WidthStrategy.sampled(2, Overflow.ELLIPSIS);
+        assertEquals(
+                ASCIITable.fromData(new String[]{"Host", "Status"}, expected, widthStrategy).toString(),
+                ASCIITable.fromDelimited(DelimitedText.tsv(new StringReader(tsv)), widthStrategy).toString()
+        );
+    }
+
+    @Test
+    public void testQuotesWithinUnquotedFields() {
+        String csv = "ID,Size,Notes\n" +
+                "1,5\" disk,x\n" +
+                "2,\"a \"\"b\"\"\",\"\"\"\"\n" +
+                "3,\"c\"d,it's 12\"\n" +
+                "4,\"\",\"\"\n";
+        String[][] expected = new String[][]{
+                {"1", "5\" disk", "x"},
+                {"2", "a \"b\"", "\""},
+                {"3", "c", "it's 12\""},
+                {"4", "", ""},
+        };
+
+        WidthStrategy widthStrategy = WidthStrategy.sampled(10, Overflow.TRUNCATE);
+        assertEquals(
+                ASCIITable.fromData(new String[]{"ID", "Size", "Notes"}, expected, widthStrategy).toString(),
+                ASCIITable.fromDelimited(DelimitedText.csv(new StringReader(csv)), widthStrategy).toString()
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOnePassReaderWithExactWidths() {
+        ASCIITable.fromDelimited(DelimitedText.csv(new StringReader("A,B\n1,2\n")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotEnoughFields() {
+        ASCIITable.fromDelimited(DelimitedText.csv(new StringReader("A,B\n1,2\n3\n")), WidthStrategy.sampled(10, Overflow.TRUNCATE)).toString();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoHeaders() {
+        ASCIITable.fromDelimited(DelimitedText.csv(new StringReader("")), WidthStrategy.sampled(10, Overflow.TRUNCATE));
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.mitchtalmadge.asciidata.table;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LiveTableTest {
+
+    private static final String[] HEADERS = new String[]{"Host", "Status", "Load"};
+
+    private static String expected(String[][] data) {
+        return ASCIITable.fromData(HEADERS, data)
+                .withNullValue("-")
+                .alignColumn(2, Align.RIGHT)
+                .toString();
+    }
+
+    @Test
+    public void testUpdates() {
+        LiveTable table = LiveTable.fromHeaders(HEADERS)
+                .withNullValue("-")
+                .alignColumn(2, Align.RIGHT);
+        Terminal terminal = new Terminal();
+
+        String[][] data = new String[][]{
+                {"alpha", "OK", "0.50"},
+                {"beta", "Multi\nLine", null},
+                {"gamma", "OK", "1.25"}};
+        String first = table.update(data);
+        assertEquals(expected(data), first);
+        terminal.write(first);
+        assertEquals(expected(data), terminal.getScreen());
+
+        // Nothing changed, so nothing is written.
+        assertEquals("", table.update(data));
+
+        // A few cells change without changing the widths of their columns.
+        data[0][1] = "NO";
+        data[1][2] = "9.99";
+        data[2][0] = "delta";
+        String diff = table.update(data);
+        assertTrue(diff.length() < first.length() / 2);
+        terminal.write(diff);
+        assertEquals(expected(data), terminal.getScreen());
+
+        // A column grows.
+        data[0][1] = "DEGRADED";
+        terminal.write(table.update(data));
+        assertEquals(expected(data), terminal.getScreen());
+
+        // The widest cell of the column shrinks.
+        data[0][1] = "OK";
+        terminal.write(table.update(data));
+        assertEquals(expected(data), terminal.getScreen());
+
+        // A row becomes shorter.
+        data[1][1] = "Single";
+        terminal.write(table.update(data));
+        assertEquals(expected(data), terminal.getScreen());
+
+        // Rows are removed, so the rest of the previous frame is cleared.
+        data = new String[][]{{"alpha", "OK", "0.50"}};
+        terminal.write(table.update(data));
+        assertEquals(expected(data), terminal.getScreen());
+
+        data = new String[0][];
+        terminal.write(table.update(data));
+        assertEquals(expected(data), terminal.getScreen());
+    }
+
+    @Test
+    public void testChangedCellsOnly() {
+        LiveTable table = LiveTable.fromHeaders(HEADERS);
+        String[][] data = new String[][]{{"alpha", "OK", "0.50"}, {"beta", "OK", "0.75"}};
+        table.update(data);
+
+        data[1][2] = "0.80";
+        // Up two lines to the second row, which is above the bottom divider, across to the third column, then back down.
+        assertEquals("\u001B[2A\u001B[20G0.80\u001B[2B\r", table.update(data));
+    }
+
+    @Test
+    public void testReset() {
+        LiveTable table = LiveTable.fromHeaders(HEADERS);
+        String[][] data = new String[][]{{"alpha", "OK", "0.50"}};
+        table.update(data);
+        table.reset();
+
+        // The table is drawn again from wherever the cursor is.
+        assertEquals(ASCIITable.fromData(HEADERS, data).toString(), table.update(data));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongColumnsCount() {
+        LiveTable.fromHeaders(HEADERS).update(new String[][]{{"alpha", "OK"}});
+    }
+
+    /**
+     * A minimal terminal which understands the escape sequences written by {@link LiveTable}.
+     */
+    private static final class Terminal {
+
+        private final List<StringBuilder> lines = new ArrayList<>();
+        private int row;
+        private int column;
+
+        void write(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\u001B') {
+                    int end = i + 2;
+                    while (!Character.isLetter(text.charAt(end)))
+                        end++;
+                    int n = end == i + 2 ? 1 : Integer.parseInt(text.substring(i + 2, end));
+                    switch (text.charAt(end)) {
+                        case 'A':
+                            row -= n;
+                            break;
+                        case 'B':
+                            row += n;
+                            break;
+                        case 'G':
+                            column = n - 1;
+                            break;
+                        case 'J':
+                            while (lines.size() > row)
+                                lines.remove(lines.size() - 1);
+                            break;
+                        default:
+                            throw new IllegalStateException("Unknown escape sequence: " + text.charAt(end));
+                    }
+                    i = end;
+                } else if (c == '\n') {
+                    row++;
+                    column = 0;
+                } else if (c == '\r') {
+                    column = 0;
+                } else {
+                    while (lines.size() <= row)
+                        lines.add(new StringBuilder());
+                    StringBuilder line = lines.get(row);
+                    while (line.length() <= column)
+                        line.append(' ');
+                    line.setCharAt(column++, c);
+                }
+            }
+        }
+
+        String getScreen() {
+            StringBuilder screen = new StringBuilder();
+            for (StringBuilder line : lines) {
+                screen.append(line).append('\n');
+            }
+            return screen.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.mitchtalmadge.asciidata.table;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumberCellTest {
+
+    @Test
+    public void testLongs() {
+        NumberCell cell = new NumberCell();
+
+        assertEquals("0", cell.setLong(0, (char) 0).toString());
+        assertEquals("123", cell.setLong(123, (char) 0).toString());
+        assertEquals("-123", cell.setLong(-123, (char) 0).toString());
+        assertEquals(String.valueOf(Long.MAX_VALUE), cell.setLong(Long.MAX_VALUE, (char) 0).toString());
+        assertEquals(String.valueOf(Long.MIN_VALUE), cell.setLong(Long.MIN_VALUE, (char) 0).toString());
+    }
+
+    @Test
+    public void testLongsWithGrouping() {
+        NumberCell cell = new NumberCell();
+
+        assertEquals("999", cell.setLong(999, ',').toString());
+        assertEquals("1,000", cell.setLong(1000, ',').toString());
+        assertEquals("-123,456", cell.setLong(-123456, ',').toString());
+        assertEquals("-9,223,372,036,854,775,808", cell.setLong(Long.MIN_VALUE, ',').toString());
+    }
+
+    @Test
+    public void testDoubles() {
+        NumberCell cell = new NumberCell();
+
+        assertEquals("3", cell.setDouble(3.14159, 0, (char) 0).toString());
+        assertEquals("3.14", cell.setDouble(3.14159, 2, (char) 0).toString());
+        assertEquals("0.05", cell.setDouble(0.05, 2, (char) 0).toString());
+        assertEquals("-2.50", cell.setDouble(-2.5, 2, (char) 0).toString());
+        assertEquals("0.00", cell.setDouble(-0.001, 2, (char) 0).toString());
+        assertEquals("1,234.57", cell.setDouble(1234.5678, 2, ',').toString());
+        assertEquals("NaN", cell.setDouble(Double.NaN, 2, (char) 0).toString());
+        assertEquals("-Infinity", cell.setDouble(Double.NEGATIVE_INFINITY, 2, (char) 0).toString());
+    }
+
+    @Test
+    public void testDoublesRoundedAtHalf() {
+        NumberCell cell = new NumberCell();
+
+        // Each is rounded as its decimal digits are, even though the nearest double is slightly below or above them.
+        assertEquals("1.01", cell.setDouble(1.005, 2, (char) 0).toString());
+        assertEquals("2.68", cell.setDouble(2.675, 2, (char) 0).toString());
+        assertEquals("0.29", cell.setDouble(0.285, 2, (char) 0).toString());
+        assertEquals("-0.29", cell.setDouble(-0.285, 2, (char) 0).toString());
+        assertEquals("1.13", cell.setDouble(1.125, 2, (char) 0).toString());
+        assertEquals("0", cell.setDouble(0.49999999999999994, 0, (char) 0).toString());
+        assertEquals("1", cell.setDouble(0.5, 0, (char) 0).toString());
+        assertEquals("3.00", cell.setDouble(2.9999999999999996, 2, (char) 0).toString());
+
+        // Every value agrees with a BigDecimal of its digits.
+        for (int i = 0; i < 100000; i++) {
+            double value = i / 1000.0 + 0.0005;
+            assertEquals(BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP).toPlainString(),
+                    cell.setDouble(value, 3, (char) 0).toString());
+        }
+    }
+
+    @Test
+    public void testLargeDoubles() {
+        NumberCell cell = new NumberCell();
+
+        assertEquals("15000000000000000000.00", cell.setDouble(1.5e19, 2, (char) 0).toString());
+        assertEquals("-15,000,000,000,000,000,000.00", cell.setDouble(-1.5e19, 2, ',').toString());
+        assertEquals("0.50000000000000000000", cell.setDouble(0.5, 20, (char) 0).toString());
+    }
+
+}
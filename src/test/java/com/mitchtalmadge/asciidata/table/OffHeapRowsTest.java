@@ -0,0 +1,62 @@
+package com.mitchtalmadge.asciidata.table;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class OffHeapRowsTest {
+
+    private static final String[] HEADERS = new String[]{"ID", "Name", "Notes"};
+
+    @Test
+    public void testOffHeapTable() {
+        String[][] data = new String[5000][];
+        OffHeapRows rows = OffHeapRows.withHeaders(HEADERS);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new String[]{
+                    String.valueOf(i),
+                    i % 3 == 0 ? "Zoë" : i % 3 == 1 ? "Ωmega 😀" : "Alfred",
+                    i % 10 == 0 ? null : i % 10 == 1 ? "Multiple\nLines" : "note " + i};
+            rows.add(data[i]);
+        }
+        assertEquals(data.length, rows.getRowsCount());
+
+        String expected = ASCIITable.fromData(HEADERS, data).withNullValue("-").alignColumn(0, Align.RIGHT).toString();
+        assertEquals(expected, ASCIITable.fromOffHeap(rows).withNullValue("-").alignColumn(0, Align.RIGHT).toString());
+        assertEquals(expected, ASCIITable.fromOffHeap(rows, ForkJoinPool.commonPool()).withNullValue("-").alignColumn(0, Align.RIGHT).toString());
+    }
+
+    @Test
+    public void testRowsAddedAfterTable() {
+        OffHeapRows rows = OffHeapRows.withHeaders(HEADERS).add("1", "Alfred", "x");
+        ASCIITable table = ASCIITable.fromOffHeap(rows);
+        rows.add("2", "A much longer name", "y");
+
+        assertEquals(ASCIITable.fromData(HEADERS, new String[][]{{"1", "Alfred", "x"}}).toString(), table.toString());
+    }
+
+    @Test
+    public void testLargeCell() {
+        // Larger than the first buffer of cell data.
+        String large = new String(new char[100000]).replace('\0', 'x');
+        OffHeapRows rows = OffHeapRows.withHeaders("Value").add("small").add(large).add("after");
+
+        assertEquals(
+                ASCIITable.fromData(new String[]{"Value"}, new String[][]{{"small"}, {large}, {"after"}}).toString(),
+                ASCIITable.fromOffHeap(rows).toString()
+        );
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(ASCIITable.fromData(HEADERS, new String[0][0]).toString(), ASCIITable.fromOffHeap(OffHeapRows.withHeaders(HEADERS)).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotEnoughColumns() {
+        OffHeapRows.withHeaders(HEADERS).add("1", "Alfred");
+    }
+
+}
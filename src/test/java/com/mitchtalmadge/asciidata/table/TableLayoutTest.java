@@ -0,0 +1,69 @@
+package com.mitchtalmadge.asciidata.table;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TableLayoutTest {
+
+    /**
+     * Tests that lines are scanned the same way that String.split would split them.
+     */
+    @Test
+    public void testScanLinesMatchesSplit() {
+        String[] texts = new String[]{"", "abc", "\n", "\n\n", "a\n", "a\nb", "a\n\nb", "\na", "a\nb\n\n", "ab\ncde\nf"};
+
+        for (String text : texts) {
+            String[] expected = text.split("\\n");
+            int[] bounds = TableLayout.scanLines(text);
+
+            if (bounds == null) {
+                assertArrayEquals(text, new String[]{text}, expected);
+                continue;
+            }
+
+            String[] actual = new String[bounds.length / 2];
+            for (int i = 0; i < actual.length; i++) {
+                actual[i] = text.substring(bounds[i * 2], bounds[i * 2 + 1]);
+            }
+            assertArrayEquals(text, expected, actual);
+        }
+    }
+
+    @Test
+    public void testMeasure() {
+        String[] headers = new String[]{"ID", "Name"};
+        String[][] data = new String[][]{
+                {"1", "Alfred\nAlan"},
+                {"22", null},
+        };
+
+        TableLayout layout = TableLayout.measure(headers, new ArrayTableData(data, headers.length), WidthStrategy.exact(), null);
+
+        assertArrayEquals(new int[]{2, 6}, layout.columnWidths);
+        assertEquals(1, layout.getRowHeight(0));
+        assertEquals(2, layout.getRowHeight(1));
+        assertEquals(1, layout.getRowHeight(2));
+
+        assertNull(layout.getLineBounds(0, 1));
+        assertNull(layout.getLineBounds(1, 0));
+        assertArrayEquals(new int[]{0, 6, 7, 11}, layout.getLineBounds(1, 1));
+        assertNull(layout.getLineBounds(2, 1));
+    }
+
+    @Test
+    public void testWrapLines() {
+        // Nothing to wrap.
+        assertNull(TableLayout.wrapLines("abc", null, 3));
+        int[] bounds = TableLayout.scanLines("ab\ncd");
+        assertSame(bounds, TableLayout.wrapLines("ab\ncd", bounds, 2));
+
+        // Single line.
+        assertArrayEquals(new int[]{0, 3, 3, 6, 6, 7}, TableLayout.wrapLines("abcdefg", null, 3));
+
+        // Multiple lines, including an empty one.
+        String text = "abcde\n\nfg";
+        assertArrayEquals(new int[]{0, 2, 2, 4, 4, 5, 6, 6, 7, 9}, TableLayout.wrapLines(text, TableLayout.scanLines(text), 2));
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.mitchtalmadge.asciidata.table;
+
+import com.mitchtalmadge.asciidata.table.formats.ASCIITableFormat;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class TableTemplateTest {
+
+    private static final String[] HEADERS = new String[]{"ID", "Name", "Notes"};
+
+    private static final String[][][] DATASETS = new String[][][]{
+            {{"1", "Alfred", "x"}, {"22", null, "Multiple\nLines"}},
+            {{"333", "Alice", "A much longer note"}},
+            {},
+            {{"4", "Bob", "y"}, {"5", "Bo", "z"}, {"6", "B", null}},
+    };
+
+    private static ASCIITable createTable(String[][] data) {
+        return ASCIITable.fromData(HEADERS, data)
+                .withTableFormat(new ASCIITableFormat())
+                .withNullValue("n/a")
+                .alignColumn(0, Align.RIGHT);
+    }
+
+    private static TableTemplate createTemplate() {
+        return TableTemplate.fromHeaders(HEADERS)
+                .withTableFormat(new ASCIITableFormat())
+                .withNullValue("n/a")
+                .alignColumn(0, Align.RIGHT);
+    }
+
+    /**
+     * Tests that a template renders each dataset the same as a table created for it,
+     * including when the widths of the columns change from one dataset to the next.
+     */
+    @Test
+    public void testRenderMatchesTable() throws IOException {
+        TableTemplate template = createTemplate();
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (String[][] data : DATASETS) {
+                String expected = createTable(data).toString();
+                assertEquals(expected, template.render(data));
+
+                StringWriter writer = new StringWriter();
+                template.renderTo(data, writer);
+                assertEquals(expected, writer.toString());
+            }
+        }
+    }
+
+    /**
+     * Tests that rendering a table too large for the thread to keep its layout does not affect the renders after it.
+     */
+    @Test
+    public void testRenderAfterLargeTable() {
+        String[][] large = new String[100000][];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = new String[]{String.valueOf(i), "Name " + i, null};
+        }
+
+        TableTemplate template = createTemplate();
+        assertEquals(createTable(DATASETS[0]).toString(), template.render(DATASETS[0]));
+        assertEquals(createTable(large).toString(), template.render(large));
+        for (String[][] data : DATASETS) {
+            assertEquals(createTable(data).toString(), template.render(data));
+        }
+    }
+
+    @Test
+    public void testTemplatesAreImmutable() {
+        TableTemplate template = TableTemplate.fromHeaders(HEADERS);
+        String[][] data = DATASETS[0];
+        String expected = ASCIITable.fromData(HEADERS, data).toString();
+
+        template.withTableFormat(new ASCIITableFormat());
+        template.withNullValue("n/a");
+        template.alignColumn(0, Align.RIGHT);
+        template.withWidthStrategy(WidthStrategy.capped(1, Overflow.TRUNCATE));
+
+        assertEquals(expected, template.render(data));
+    }
+
+    @Test
+    public void testConcurrentRenders() throws Exception {
+        TableTemplate template = createTemplate();
+
+        List<String> expected = new ArrayList<>();
+        for (String[][] data : DATASETS) {
+            expected.add(createTable(data).toString());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        int dataset = i % DATASETS.length;
+                        assertEquals(expected.get(dataset), template.render(DATASETS[dataset]));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that rendering from a template while it is already rendering on the same thread does not disturb the first render.
+     */
+    @Test
+    public void testReentrantRender() {
+        List<String> nestedRenders = new ArrayList<>();
+        TableTemplate[] template = new TableTemplate[1];
+        template[0] = createTemplate().withRenderListener(metrics -> {
+            if (nestedRenders.isEmpty()) {
+                nestedRenders.add("");
+                nestedRenders.add(template[0].render(DATASETS[1]));
+            }
+        });
+
+        assertEquals(createTable(DATASETS[0]).toString(), template[0].render(DATASETS[0]));
+        assertEquals(createTable(DATASETS[1]).toString(), nestedRenders.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedColumns() {
+        TableTemplate.fromHeaders(HEADERS).render(new String[][]{{"1", "2"}});
+    }
+
+}